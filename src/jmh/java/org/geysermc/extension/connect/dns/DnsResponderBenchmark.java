@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import org.geysermc.extension.connect.config.DnsServerSection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+
+/**
+ * Load tests the DNS server, both answering queries in process and with clients sending queries to it over loopback.
+ * The loopback benchmark reports queries per second across all of its client threads.
+ */
+@State(Scope.Benchmark)
+public class DnsResponderBenchmark {
+    private static final DnsServerSection CONFIG = new DnsServerSection(true, null, 0, 300, null,
+        List.of("167.71.133.54", "2a03:b0c0:1:e0::6a5:b001"),
+        List.of("hivebedrock.network", "mco.mineplex.com", "play.inpvp.net", "mco.lbsg.net", "mco.cubecraft.net", "play.galaxite.net", "play.pixelparadise.gg"));
+
+    @Param({"mco.cubecraft.net", "geyser.mco.cubecraft.net", "example.com"})
+    public String name;
+
+    private DnsResponder server;
+    private DnsResponder inProcess;
+    private ByteBuffer query;
+    private final ByteBuffer response = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+
+    @Setup
+    public void setup() throws IOException {
+        server = new DnsResponder(CONFIG, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+
+        // The in process responder is never started so its buffers aren't shared with a receive thread
+        inProcess = new DnsResponder(CONFIG, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        query = query(name);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+        inProcess.close();
+    }
+
+    private static ByteBuffer query(String name) {
+        ByteBuffer query = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+        DnsCodec.writeQuery(query, 0x1234, name, DnsCodec.TYPE_A);
+        return query.flip();
+    }
+
+    @Benchmark
+    public int handle() {
+        return inProcess.handle(query, response);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int loopback(Client client) throws IOException {
+        client.query.rewind();
+        client.channel.write(client.query);
+        client.response.clear();
+        return client.channel.read(client.response);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private DatagramChannel channel;
+        private ByteBuffer query;
+        private final ByteBuffer response = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+
+        @Setup
+        public void setup(DnsResponderBenchmark benchmark) throws IOException {
+            channel = DatagramChannel.open();
+            channel.connect(benchmark.server.localAddress());
+            query = query(benchmark.name);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+        }
+    }
+}
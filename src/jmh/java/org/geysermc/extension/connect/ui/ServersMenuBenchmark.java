@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.ui;
+
+import org.geysermc.cumulus.form.SimpleForm;
+import org.geysermc.extension.connect.utils.BenchmarkServers;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Measures building the servers menu form, this happens every time a player opens a category.
+ * Custom servers need their buttons creating each time while the global servers use the {@link FormCache}.
+ */
+@State(Scope.Benchmark)
+public class ServersMenuBenchmark {
+    @Param({"10", "100", "1000"})
+    public int servers;
+
+    private List<Server> serverList;
+    private FormCache formCache;
+
+    @Setup
+    public void setup() {
+        serverList = BenchmarkServers.servers(servers, ServerCategory.CUSTOM);
+        formCache = new FormCache(BenchmarkServers.servers(servers, ServerCategory.OFFICIAL), true, null);
+    }
+
+    @Benchmark
+    public SimpleForm build() {
+        return UIHandler.serversMenu(ServerCategory.CUSTOM, formCache.buttons(serverList)).build();
+    }
+
+    @Benchmark
+    public SimpleForm buildCached() {
+        return UIHandler.serversMenu(ServerCategory.OFFICIAL, formCache.serverButtons(ServerCategory.OFFICIAL)).build();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BenchmarkServers {
+    private static final ServerCategory[] CATEGORIES = ServerCategory.values();
+
+    private BenchmarkServers() {
+    }
+
+    /**
+     * Create a list of servers that looks like a real server list, a mix of named and
+     * unnamed servers with and without images spread over every category
+     *
+     * @param count The number of servers to create
+     * @return The servers
+     */
+    public static List<Server> servers(int count) {
+        List<Server> servers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            servers.add(new Server(
+                "play" + i + ".example.com",
+                i % 4 == 0 ? 25565 + i : -1,
+                i % 3 != 0,
+                i % 5 == 0,
+                i % 2 == 0 ? "Example Server " + i : null,
+                i % 7 == 0 ? "https://example.com/icons/" + i + ".png" : null,
+                CATEGORIES[i % CATEGORIES.length]
+            ));
+        }
+        return servers;
+    }
+
+    /**
+     * Create a list of servers that all belong to the given category
+     *
+     * @param count The number of servers to create
+     * @param category The category of the servers
+     * @return The servers
+     */
+    public static List<Server> servers(int count, ServerCategory category) {
+        List<Server> servers = new ArrayList<>(count);
+        for (Server server : servers(count)) {
+            servers.add(new Server(server.address(), server.port(), server.online(), server.bedrock(), server.name(), server.imageUrl(), category));
+        }
+        return servers;
+    }
+}
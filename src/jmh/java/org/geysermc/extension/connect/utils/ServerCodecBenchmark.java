@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compares the reflective Gson serialisation server lists used to go through with {@link ServerCodec}.
+ * Run with {@code -prof gc} to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+public class ServerCodecBenchmark {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final TypeToken<List<Server>> SERVER_LIST_TYPE = new TypeToken<>() {
+    };
+
+    @Param({"1", "10", "100"})
+    public int servers;
+
+    private List<Server> serverList;
+    private String gsonJson;
+    private String codecJson;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws IOException {
+        serverList = BenchmarkServers.servers(servers, ServerCategory.CUSTOM);
+        gsonJson = GSON.toJson(serverList);
+        codecJson = ServerCodec.toJson(serverList);
+        binary = encodeBinary();
+    }
+
+    @Benchmark
+    public String gsonEncode() {
+        return GSON.toJson(serverList);
+    }
+
+    @Benchmark
+    public List<Server> gsonDecode() {
+        return GSON.fromJson(gsonJson, SERVER_LIST_TYPE);
+    }
+
+    @Benchmark
+    public String codecJsonEncode() {
+        return ServerCodec.toJson(serverList);
+    }
+
+    @Benchmark
+    public List<Server> codecJsonDecode() throws IOException {
+        return ServerCodec.fromJson(codecJson);
+    }
+
+    @Benchmark
+    public byte[] codecBinaryEncode() throws IOException {
+        return encodeBinary();
+    }
+
+    @Benchmark
+    public List<Server> codecBinaryDecode() throws IOException {
+        return ServerCodec.readBinary(new DataInputStream(new ByteArrayInputStream(binary)));
+    }
+
+    private byte[] encodeBinary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(servers * 48);
+        ServerCodec.writeBinary(new DataOutputStream(bytes), serverList);
+        return bytes.toByteArray();
+    }
+}
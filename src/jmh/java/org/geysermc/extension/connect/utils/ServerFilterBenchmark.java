@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.extension.connect.ui.FormCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Compares filtering the configured servers down to a category, which used to happen every time a player opened
+ * the official or Geyser servers menu, with looking them up in the {@link FormCache}
+ */
+@State(Scope.Benchmark)
+public class ServerFilterBenchmark {
+    @Param({"10", "100", "1000"})
+    public int servers;
+
+    private List<Server> configServers;
+    private FormCache formCache;
+
+    @Setup
+    public void setup() {
+        configServers = BenchmarkServers.servers(servers);
+        formCache = new FormCache(configServers, true, null);
+    }
+
+    @Benchmark
+    public List<Server> official() {
+        return filter(configServers, ServerCategory.OFFICIAL);
+    }
+
+    @Benchmark
+    public List<Server> geyser() {
+        return filter(configServers, ServerCategory.GEYSER);
+    }
+
+    @Benchmark
+    public List<Server> indexed() {
+        return formCache.servers(ServerCategory.OFFICIAL);
+    }
+
+    private static List<Server> filter(List<Server> servers, ServerCategory category) {
+        return servers.stream().filter(server -> server.category() == category).toList();
+    }
+}
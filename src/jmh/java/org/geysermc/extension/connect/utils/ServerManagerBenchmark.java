@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the server registry with many players joining and leaving at once, and with a
+ * player editing their servers while the menu is reading them. Storage is left out, loads
+ * complete straight away so only the registry itself is measured.
+ */
+@State(Scope.Benchmark)
+public class ServerManagerBenchmark {
+    private static final int PLAYERS = 1024;
+    private static final String SHARED_XUID = "shared";
+
+    private final String[] xuids = new String[PLAYERS];
+    private CompletableFuture<List<Server>> loaded;
+    private Server server;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < PLAYERS; i++) {
+            xuids[i] = String.valueOf(2535400000000000L + i);
+        }
+        loaded = CompletableFuture.completedFuture(BenchmarkServers.servers(10, ServerCategory.CUSTOM));
+        server = BenchmarkServers.servers(1, ServerCategory.CUSTOM).get(0);
+
+        ServerManager.loadServers(SHARED_XUID, loaded);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ServerManager.unloadServers(SHARED_XUID);
+        for (String xuid : xuids) {
+            ServerManager.unloadServers(xuid);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ServerManager.Snapshot loadUnload() {
+        String xuid = xuids[ThreadLocalRandom.current().nextInt(PLAYERS)];
+        ServerManager.loadServers(xuid, loaded);
+        return ServerManager.unloadServers(xuid);
+    }
+
+    @Benchmark
+    @Group("editWhileReading")
+    @GroupThreads(2)
+    public void edit() {
+        ServerManager.update(SHARED_XUID, current -> {
+            List<Server> updated = new ArrayList<>(current);
+            if (updated.size() > 20) {
+                updated.remove(updated.size() - 1);
+            } else {
+                updated.add(server);
+            }
+            return updated;
+        });
+    }
+
+    @Benchmark
+    @Group("editWhileReading")
+    @GroupThreads(6)
+    public List<Server> read() {
+        return ServerManager.getServers(SHARED_XUID);
+    }
+}
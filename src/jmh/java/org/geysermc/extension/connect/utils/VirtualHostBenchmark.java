@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.extension.connect.config.VirtualHostSection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the regex based virtual host parsing that used to run for every player with {@link VirtualHostRouter},
+ * both with and without its cache
+ */
+@State(Scope.Benchmark)
+public class VirtualHostBenchmark {
+    private static final List<String> DOMAINS = List.of("connect.example.com", "play.example.net", "example.org");
+
+    @Param({
+        "mc.hypixel.net.connect.example.com",
+        "mc.hypixel.net._p25566._o.play.example.net:19132",
+        "connect.example.com",
+        "somewhere.else.com"
+    })
+    public String domain;
+
+    private VirtualHostRouter router;
+
+    @Setup
+    public void setup() {
+        router = new VirtualHostRouter(new VirtualHostSection(true, false, DOMAINS));
+    }
+
+    @Benchmark
+    public Server regex() {
+        return parseWithRegex(DOMAINS, domain);
+    }
+
+    @Benchmark
+    public VirtualHostRouter.Route router() {
+        return router.route(domain);
+    }
+
+    @Benchmark
+    public VirtualHostRouter.Route routerUncached() {
+        return router.parse(domain);
+    }
+
+    /**
+     * The virtual host parsing as it was before {@link VirtualHostRouter}
+     */
+    static Server parseWithRegex(List<String> domains, String domain) {
+        Pattern regex = Pattern.compile("\\.?(" + domains.stream().map(Pattern::quote).collect(Collectors.joining("|")) + ")(:[0-9]+)?$");
+
+        if (!regex.matcher(domain).find()) {
+            return null;
+        }
+
+        String target = domain.replaceAll(regex.pattern(), "").strip();
+        if (target.isEmpty()) {
+            return null;
+        }
+
+        String address = "";
+        int port = 25565;
+        boolean online = true;
+
+        String[] domainParts = target.split("\\._");
+        for (int i = 0; i < domainParts.length; i++) {
+            String part = domainParts[i];
+            if (i == 0) {
+                address = part;
+            } else if (part.startsWith("p")) {
+                port = Integer.parseInt(part.substring(1));
+            } else if (part.startsWith("o")) {
+                online = false;
+            }
+        }
+
+        return new Server(address, port, online, false, null, null, null);
+    }
+}
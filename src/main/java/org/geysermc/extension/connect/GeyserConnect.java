@@ -27,34 +27,90 @@ package org.geysermc.extension.connect;
 
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.bedrock.packet.TransferPacket;
+import org.geysermc.extension.connect.admission.AdmissionController;
+import org.geysermc.extension.connect.cluster.ClusterManager;
+import org.geysermc.extension.connect.cluster.ClusterMembership;
+import org.geysermc.extension.connect.cluster.GossipMembership;
+import org.geysermc.extension.connect.cluster.NodeLoad;
+import org.geysermc.extension.connect.cluster.SqlMembership;
+import org.geysermc.extension.connect.config.ClusterSection;
 import org.geysermc.extension.connect.config.Config;
 import org.geysermc.extension.connect.config.ConfigLoader;
+import org.geysermc.extension.connect.dns.DnsClient;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.dns.DnsResponder;
+import org.geysermc.extension.connect.jobs.DrainController;
+import org.geysermc.extension.connect.jobs.JobManager;
+import org.geysermc.extension.connect.jobs.SessionJob;
+import org.geysermc.extension.connect.metrics.Metrics;
+import org.geysermc.extension.connect.metrics.MetricsServer;
+import org.geysermc.extension.connect.storage.AbstractSQLStorageManager;
 import org.geysermc.extension.connect.storage.AbstractStorageManager;
+import org.geysermc.extension.connect.storage.ConnectionPool;
 import org.geysermc.extension.connect.storage.DisabledStorageManager;
+import org.geysermc.extension.connect.storage.ServerListCache;
+import org.geysermc.extension.connect.storage.WriteBehindQueue;
+import org.geysermc.extension.connect.status.EndpointProber;
+import org.geysermc.extension.connect.status.StatusService;
+import org.geysermc.extension.connect.ui.FormCache;
+import org.geysermc.extension.connect.ui.WelcomeMessages;
+import org.geysermc.extension.connect.utils.JoinTimer;
+import org.geysermc.extension.connect.utils.ResolvedServer;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerManager;
+import org.geysermc.extension.connect.utils.Signals;
+import org.geysermc.extension.connect.utils.TimingWheel;
 import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.extension.connect.utils.VirtualHostRouter;
 import org.geysermc.cumulus.form.CustomForm;
+import org.geysermc.cumulus.form.Form;
 import org.geysermc.event.subscribe.Subscribe;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.command.Command;
 import org.geysermc.geyser.api.command.CommandSource;
 import org.geysermc.geyser.api.connection.GeyserConnection;
+import org.geysermc.geyser.api.event.bedrock.SessionDisconnectEvent;
 import org.geysermc.geyser.api.event.bedrock.SessionInitializeEvent;
+import org.geysermc.geyser.api.event.bedrock.SessionLoginEvent;
+import org.geysermc.geyser.api.event.connection.ConnectionRequestEvent;
 import org.geysermc.geyser.api.event.lifecycle.GeyserDefineCommandsEvent;
 import org.geysermc.geyser.api.event.lifecycle.GeyserPostInitializeEvent;
 import org.geysermc.geyser.api.event.lifecycle.GeyserPreInitializeEvent;
+import org.geysermc.geyser.api.event.lifecycle.GeyserShutdownEvent;
 import org.geysermc.geyser.api.extension.Extension;
 import org.geysermc.geyser.api.network.AuthType;
+import org.geysermc.geyser.api.network.RemoteServer;
 import org.geysermc.geyser.api.util.PlatformType;
 import org.geysermc.geyser.session.GeyserSession;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class GeyserConnect implements Extension {
     private static GeyserConnect instance;
     private Config config;
     private AbstractStorageManager storageManager;
+    private volatile VirtualHostRouter virtualHostRouter;
+    private final JoinTimer joinTimer = new JoinTimer();
+    private TimingWheel timingWheel;
+    private FormCache formCache;
+    private DnsResolver dnsResolver;
+    private DnsResponder dnsResponder;
+    private StatusService statusService;
+    private EndpointProber endpointProber;
+    private AdmissionController admissionController;
+    private JobManager jobManager;
+    private DrainController drainController;
+    private ClusterManager clusterManager;
+    private MetricsServer metricsServer;
+    private boolean storageClosed;
+    private WelcomeMessages welcomeMessages;
 
     public GeyserConnect() {
         instance = this;
@@ -72,6 +128,86 @@ public class GeyserConnect implements Extension {
         return storageManager;
     }
 
+    public FormCache formCache() {
+        return formCache;
+    }
+
+    public WelcomeMessages welcomeMessages() {
+        return welcomeMessages;
+    }
+
+    public TimingWheel timingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * @return The endpoint prober or null if no servers have endpoints
+     */
+    public EndpointProber endpointProber() {
+        return endpointProber;
+    }
+
+    public JoinTimer joinTimer() {
+        return joinTimer;
+    }
+
+    public JobManager jobManager() {
+        return jobManager;
+    }
+
+    /**
+     * @return The cluster manager or null if clustering is disabled
+     */
+    public ClusterManager clusterManager() {
+        return clusterManager;
+    }
+
+    public DrainController drainController() {
+        return drainController;
+    }
+
+    /**
+     * @return The admission controller or null if admission control is disabled
+     */
+    public AdmissionController admissionController() {
+        return admissionController;
+    }
+
+    /**
+     * @return The status service or null if server status is disabled
+     */
+    public StatusService statusService() {
+        return statusService;
+    }
+
+    /**
+     * @return The built in DNS server or null if it is disabled
+     */
+    public DnsResponder dnsResponder() {
+        return dnsResponder;
+    }
+
+    /**
+     * @return The DNS resolver or null if DNS caching is disabled
+     */
+    public DnsResolver dnsResolver() {
+        return dnsResolver;
+    }
+
+    /**
+     * Get the virtual host router for the current config, it is rebuilt if the config has changed
+     *
+     * @return The virtual host router
+     */
+    public VirtualHostRouter virtualHostRouter() {
+        VirtualHostRouter router = virtualHostRouter;
+        if (router == null || router.config() != config.vhost()) {
+            router = new VirtualHostRouter(config.vhost());
+            virtualHostRouter = router;
+        }
+        return router;
+    }
+
     @Subscribe
     public void onPreInitialize(GeyserPreInitializeEvent event) {
         if (this.geyserApi().platformType() != PlatformType.STANDALONE) {
@@ -83,6 +219,36 @@ public class GeyserConnect implements Extension {
     @Subscribe
     public void onPostInitialize(GeyserPostInitializeEvent event) {
         config = ConfigLoader.load(this, GeyserConnect.class, Config.class);
+        timingWheel = new TimingWheel("Timer", 50, TimeUnit.MILLISECONDS, 64);
+        jobManager = new JobManager(config.jobs(), timingWheel);
+        if (config.dns().enabled()) {
+            setupDnsResolver();
+        }
+        if (config.status().enabled()) {
+            statusService = new StatusService(config.status(), config.servers(), timingWheel, dnsResolver);
+            statusService.start();
+        }
+        if (EndpointProber.hasEndpoints(config.servers())) {
+            endpointProber = new EndpointProber(config.endpointProbing(), config.servers(), timingWheel, dnsResolver);
+            endpointProber.start();
+        }
+        if (config.admission().enabled()) {
+            admissionController = new AdmissionController(config.admission(), timingWheel);
+            admissionController.start();
+        }
+        formCache = new FormCache(config.servers(), config.customServers().enabled(), statusService);
+
+        if (config.dnsServer().enabled()) {
+            try {
+                dnsResponder = new DnsResponder(config.dnsServer());
+                dnsResponder.start();
+                this.logger().info("DNS server listening on " + dnsResponder.localAddress());
+            } catch (IOException e) {
+                this.logger().error("Failed to start the DNS server", e);
+            }
+        }
+
+        welcomeMessages = new WelcomeMessages(config.welcomeFile());
 
         if (!config.customServers().enabled()) {
             // Force the storage manager if we have it disabled
@@ -98,9 +264,34 @@ public class GeyserConnect implements Extension {
         }
 
         storageManager.setupStorage();
+        welcomeMessages.start(timingWheel, storageManager.ioExecutor());
+
+        drainController = new DrainController(config.drain(), jobManager, timingWheel, this::closeStorage);
+        if (!config.drain().signal().isEmpty()) {
+            try {
+                Signals.handle(config.drain().signal(), this::drain);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                this.logger().warning("Unable to drain on SIG" + config.drain().signal() + ": " + e.getMessage());
+            }
+        }
 
         GeyserImpl geyserInstance = (GeyserImpl) this.geyserApi();
 
+        if (config.cluster().enabled()) {
+            setupCluster(geyserInstance);
+        }
+
+        Metrics.bind(this);
+        if (config.metrics().enabled()) {
+            try {
+                metricsServer = new MetricsServer(config.metrics(), Metrics.registry());
+                metricsServer.start();
+                this.logger().info("Metrics available at http://" + config.metrics().address() + ":" + config.metrics().port() + "/metrics");
+            } catch (IOException e) {
+                this.logger().error("Failed to start the metrics server", e);
+            }
+        }
+
         // Remove all saved logins to prevent issues connecting
         // Maybe worth adding support for this later
         geyserInstance.config().savedUserLogins().clear();
@@ -118,20 +309,222 @@ public class GeyserConnect implements Extension {
         }
     }
 
+    private void setupDnsResolver() {
+        List<InetSocketAddress> resolvers = new ArrayList<>();
+        for (String resolver : config.dns().resolvers()) {
+            try {
+                resolvers.add(DnsClient.parseResolver(resolver));
+            } catch (IOException e) {
+                this.logger().warning("Invalid DNS resolver: " + e.getMessage());
+            }
+        }
+
+        if (resolvers.isEmpty()) {
+            resolvers = DnsClient.systemResolvers();
+        }
+
+        if (resolvers.isEmpty()) {
+            this.logger().warning("No DNS resolvers configured or found in /etc/resolv.conf, DNS caching is disabled");
+            return;
+        }
+
+        dnsResolver = new DnsResolver(config.dns(), resolvers);
+    }
+
+    private void setupCluster(GeyserImpl geyserInstance) {
+        ClusterSection clusterConfig = config.cluster();
+        if (clusterConfig.address().isEmpty()) {
+            this.logger().warning("The cluster address isn't set so other nodes can't send players here, clustering is disabled");
+            return;
+        }
+
+        long expiry = TimeUnit.SECONDS.toMillis(clusterConfig.expiry());
+        ClusterMembership membership;
+        switch (clusterConfig.membership().toLowerCase()) {
+            case "sql":
+                if (!(storageManager instanceof AbstractSQLStorageManager sqlStorageManager) || sqlStorageManager.writePool() == null) {
+                    this.logger().warning("Cluster membership through SQL needs the custom servers storage type to be sqlite or mysql, clustering is disabled");
+                    return;
+                }
+                try {
+                    membership = new SqlMembership(sqlStorageManager.writePool(), clusterConfig.nodeId(), expiry);
+                } catch (IOException e) {
+                    this.logger().error("Failed to set up cluster membership through SQL, clustering is disabled", e);
+                    return;
+                }
+                break;
+            case "gossip":
+                if (clusterConfig.gossipSecret().isEmpty()) {
+                    this.logger().warning("Cluster gossip needs a gossip-secret shared by every node, clustering is disabled");
+                    return;
+                }
+
+                try {
+                    List<InetSocketAddress> seeds = new ArrayList<>();
+                    for (String seed : clusterConfig.seeds()) {
+                        seeds.add(GossipMembership.parseAddress(seed, clusterConfig.gossipPort()));
+                    }
+                    membership = new GossipMembership(clusterConfig.nodeId(), new InetSocketAddress(clusterConfig.gossipAddress(), clusterConfig.gossipPort()), seeds, expiry, clusterConfig.gossipSecret());
+                } catch (IOException | IllegalArgumentException e) {
+                    this.logger().error("Failed to start cluster gossip, clustering is disabled", e);
+                    return;
+                }
+                break;
+            default:
+                this.logger().warning("Unknown cluster membership " + clusterConfig.membership() + ", expected gossip or sql. Clustering is disabled");
+                return;
+        }
+
+        int capacity = clusterConfig.capacity() > 0 ? clusterConfig.capacity() : geyserInstance.config().motd().maxPlayers();
+        clusterManager = new ClusterManager(clusterConfig, membership, capacity);
+        clusterManager.start();
+        this.logger().info("Joined the cluster as " + clusterConfig.nodeId() + " using " + clusterConfig.membership() + " membership");
+    }
+
+    /**
+     * Start draining, leaving the cluster first so other nodes stop sending players here
+     *
+     * @return If the drain was started, false if it already had been
+     */
+    private boolean drain() {
+        if (clusterManager != null) {
+            clusterManager.stop();
+        }
+        return drainController.start();
+    }
+
+    @Subscribe
+    public void onShutdown(GeyserShutdownEvent event) {
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+
+        if (clusterManager != null) {
+            clusterManager.stop();
+        }
+
+        if (admissionController != null) {
+            admissionController.stop();
+        }
+
+        if (statusService != null) {
+            statusService.stop();
+        }
+
+        if (endpointProber != null) {
+            endpointProber.stop();
+        }
+
+        if (dnsResponder != null) {
+            dnsResponder.close();
+        }
+
+        if (dnsResolver != null) {
+            dnsResolver.close();
+        }
+
+        if (timingWheel != null) {
+            timingWheel.close();
+        }
+
+        // Make sure any queued saves are written before we go
+        closeStorage();
+    }
+
+    private synchronized void closeStorage() {
+        // A drain may have closed it already
+        if (storageManager != null && !storageClosed) {
+            storageClosed = true;
+            storageManager.closeStorage();
+        }
+    }
+
+    @Subscribe
+    public void onConnectionRequest(ConnectionRequestEvent event) {
+        // Players should be joining another server while we drain
+        if (drainController != null && drainController.draining()) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // Refuse joins over the rate limits before Geyser sets up a session for them
+        if (admissionController != null) {
+            InetSocketAddress address = event.proxyIp() != null ? event.proxyIp() : event.inetSocketAddress();
+            if (!admissionController.tryConnect(address.getAddress())) {
+                event.setCancelled(true);
+            }
+        }
+    }
+
     @Subscribe
     public void onSessionInitialize(SessionInitializeEvent event) {
         GeyserSession session = (GeyserSession) event.connection();
         if (config().hardPlayerLimit()) {
             if (session.getGeyser().getSessionManager().size() >= session.getGeyser().config().motd().maxPlayers()) {
                 session.disconnect("disconnectionScreen.serverFull");
+                return;
+            }
+        }
+
+        AdmissionController.Admission admission = AdmissionController.Admission.ADMITTED;
+        if (admissionController != null) {
+            admission = admissionController.join(session);
+            if (admission == AdmissionController.Admission.REJECTED) {
+                session.disconnect(AdmissionController.BUSY_MESSAGE);
+                return;
+            }
+        }
+
+        // Send virtual host players straight to their server without setting up the lobby,
+        // queued players still go through the lobby so they have somewhere to wait
+        if (config().vhost().enabled() && config().vhost().fastPath() && admission == AdmissionController.Admission.ADMITTED) {
+            VirtualHostRouter.Route route = virtualHostRouter().route(session.getClientData().getServerAddress());
+            if (route != null) {
+                if (!route.valid()) {
+                    Metrics.VHOST_INVALID.increment();
+                    session.disconnect("disconnectionScreen.invalidIP");
+                    return;
+                }
+
+                Metrics.VHOST_ROUTES.increment();
+                Server server = route.server();
+                this.logger().info(Utils.displayName(session) + " is using virtualhost: " + server.address() + ":" + server.port() + (!server.online() ? " (offline)" : "") + " (fast path)");
+
+                // Geyser handles the rest of the connection as if we were never here
+                session.remoteServer(dnsResolver != null ? dnsResolver.cached(server) : server);
+                joinTimer.start(session, true);
+                Metrics.FAST_PATH_JOINS.increment();
+                return;
             }
         }
 
+        joinTimer.start(session, false);
+        Metrics.LOBBY_JOINS.increment();
+
         // Change the packet handler to our own
         BedrockPacketHandler packetHandler = session.getUpstream().getSession().getPacketHandler();
         session.getUpstream().getSession().setPacketHandler(new PacketHandler(this, session, packetHandler));
     }
 
+    @Subscribe
+    public void onSessionLogin(SessionLoginEvent event) {
+        joinTimer.connected(event.connection().xuid());
+
+        // Fast path joins are done once they reach their server
+        if (admissionController != null) {
+            admissionController.joined((GeyserSession) event.connection());
+        }
+    }
+
+    @Subscribe
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        joinTimer.cancel(event.connection().xuid());
+
+        if (admissionController != null) {
+            admissionController.left((GeyserSession) event.connection());
+        }
+    }
+
     @Subscribe
     public void onCommandDefine(GeyserDefineCommandsEvent event) {
         event.register(Command.builder(this)
@@ -141,19 +534,7 @@ public class GeyserConnect implements Extension {
             .name("menu")
             .description("Take you back to the GeyserConnect menu.")
             .executor((source, command, args) -> {
-                GeyserSession session = (GeyserSession) source;
-                String serverAddress = session.getClientData().getServerAddress();
-                String ip = serverAddress.split(":")[0];
-                int port = 19132;
-                try {
-                    port = Integer.parseInt(serverAddress.split(":")[1]);
-                } catch (NumberFormatException ignored) {
-                }
-
-                TransferPacket transferPacket = new TransferPacket();
-                transferPacket.setAddress(ip);
-                transferPacket.setPort(port);
-                session.sendUpstreamPacket(transferPacket);
+                Utils.reconnect((GeyserSession) source);
             })
             .build());
 
@@ -175,26 +556,29 @@ public class GeyserConnect implements Extension {
                     return;
                 }
 
-                List<GeyserSession> sessions = getGeyserSessions();
-
+                Consumer<GeyserSession> action;
                 switch (type) {
                     case "chat":
-                        for (GeyserSession session : sessions) {
-                            session.sendMessage(message);
-                        }
+                        action = session -> session.sendMessage(message);
                         break;
                     case "gui":
-                        for (GeyserSession session : sessions) {
-                            session.sendForm(CustomForm.builder()
-                                .title("Notice")
-                                .label(message)
-                                .build());
-                        }
+                        // Every player is sent the same form
+                        Form form = CustomForm.builder()
+                            .title("Notice")
+                            .label(message)
+                            .build();
+                        action = session -> {
+                            session.sendForm(form);
+                            Metrics.FORMS_SENT.increment();
+                        };
                         break;
                     default:
                         source.sendMessage("Invalid message type. Valid types: chat, gui");
                         return;
                 }
+
+                SessionJob job = jobManager.submit("messageall " + type, getGeyserSessions(), action);
+                source.sendMessage("Started job #" + job.id() + " sending the message to " + job.total() + " players");
             })
             .build());
 
@@ -223,30 +607,186 @@ public class GeyserConnect implements Extension {
                     }
                 }
 
-                for (GeyserSession session : getGeyserSessions()) {
-                    String sessionIp = ip;
+                String target = ip;
+                int targetPort = port;
+
+                // Everyone is sent the same packet unless they each need their own vhost
+                TransferPacket sharedPacket = new TransferPacket();
+                sharedPacket.setAddress(target);
+                sharedPacket.setPort(targetPort);
 
-                    // If we are passing with a vhost construct the vhost
-                    if (passAsVhost) {
-                        sessionIp = session.remoteServer().address();
-                        sessionIp += "._p" + session.remoteServer().port();
-                        if (session.remoteServer().authType() == AuthType.OFFLINE) {
-                            sessionIp += "._o";
-                        }
-                        sessionIp += "." + ip;
+                SessionJob job = jobManager.submit("transferall to " + target + ":" + targetPort, getGeyserSessions(), session -> {
+                    if (!passAsVhost) {
+                        session.sendUpstreamPacket(sharedPacket);
+                        return;
+                    }
+
+                    // Construct the vhost for the server the player is on, using the server they picked rather than its SRV target
+                    RemoteServer remoteServer = session.remoteServer();
+                    if (remoteServer instanceof ResolvedServer resolvedServer) {
+                        remoteServer = resolvedServer.server();
                     }
 
-                    GeyserConnect.instance().logger().info("Sending " + Utils.displayName(session) + " to " + sessionIp + (port != 19132 ? ":" + port : ""));
+                    String sessionIp = remoteServer.address();
+                    sessionIp += "._p" + remoteServer.port();
+                    if (remoteServer.authType() == AuthType.OFFLINE) {
+                        sessionIp += "._o";
+                    }
+                    sessionIp += "." + target;
+
+                    GeyserConnect.instance().logger().debug("Sending " + Utils.displayName(session) + " to " + sessionIp + (targetPort != 19132 ? ":" + targetPort : ""));
 
                     TransferPacket transferPacket = new TransferPacket();
                     transferPacket.setAddress(sessionIp);
-                    transferPacket.setPort(port);
+                    transferPacket.setPort(targetPort);
                     session.sendUpstreamPacket(transferPacket);
+                });
+                source.sendMessage("Started job #" + job.id() + " transferring " + job.total() + " players in " + job.waves() + " waves");
+            })
+            .build());
+
+        event.register(Command.builder(this)
+            .source(CommandSource.class)
+            .name("jobs")
+            .description("List the running messageall and transferall jobs, or cancel one.")
+            .executor((source, command, args) -> {
+                if (!source.isConsole()) {
+                    source.sendMessage("This command can only be ran from the console.");
+                    return;
+                }
+
+                if (args.length > 0 && args[0].equalsIgnoreCase("cancel")) {
+                    int id;
+                    try {
+                        id = Integer.parseInt(args[1]);
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        source.sendMessage("You must specify the id of the job to cancel.");
+                        return;
+                    }
+
+                    if (!jobManager.cancel(id)) {
+                        source.sendMessage("There is no running job #" + id);
+                    }
+                    return;
+                }
+
+                List<SessionJob> jobs = jobManager.jobs();
+                if (jobs.isEmpty()) {
+                    source.sendMessage("There are no running jobs.");
+                    return;
+                }
+
+                for (SessionJob job : jobs) {
+                    int processed = job.completed() + job.skipped() + job.failed();
+                    source.sendMessage("#" + job.id() + " " + job.description() + ": " + processed + "/" + job.total() + " players ("
+                        + (processed * 100 / job.total()) + "%), " + job.skipped() + " skipped, " + job.failed() + " failed, " + job.elapsed() + "s elapsed");
+                }
+            })
+            .build());
+
+        event.register(Command.builder(this)
+            .source(CommandSource.class)
+            .name("drain")
+            .description("Stop accepting players and move those in the menus to another server, ready for a restart.")
+            .executor((source, command, args) -> {
+                if (!source.isConsole()) {
+                    source.sendMessage("This command can only be ran from the console.");
+                    return;
+                }
+
+                if (drain()) {
+                    source.sendMessage("Started draining, see the jobs command for progress.");
+                } else if (drainController.drained()) {
+                    source.sendMessage("Draining has finished, it is now safe to stop GeyserConnect.");
+                } else {
+                    source.sendMessage("Already draining, " + getGeyserSessions().size() + " players are still online.");
+                }
+            })
+            .build());
+
+        event.register(Command.builder(this)
+            .source(CommandSource.class)
+            .name("stats")
+            .description("Show statistics about this GeyserConnect server.")
+            .executor((source, command, args) -> {
+                if (!source.isConsole()) {
+                    source.sendMessage("This command can only be ran from the console.");
+                    return;
                 }
+
+                sendStats(source);
             })
             .build());
     }
 
+    private void sendStats(CommandSource source) {
+        WriteBehindQueue writeQueue = storageManager.writeQueue();
+        source.sendMessage("Storage queue: " + writeQueue.depth() + " pending, " + writeQueue.queued() + " queued, "
+            + writeQueue.coalesced() + " coalesced, " + writeQueue.overflows() + " overflowed, " + writeQueue.retries() + " retried, " + writeQueue.rejected() + " rejected");
+        source.sendMessage("Storage flushes: " + writeQueue.flushes() + " flushes, " + writeQueue.written() + " written, "
+            + String.format("%.2fms avg, %.2fms last, %.2fms max", writeQueue.averageFlushNanos() / 1e6, writeQueue.lastFlushNanos() / 1e6, writeQueue.maxFlushNanos() / 1e6));
+
+        source.sendMessage("Server lists: " + ServerManager.loadedPlayers() + " loaded");
+        source.sendMessage("Server list saves: " + ServerManager.savesPerformed() + " performed, " + ServerManager.savesSkipped() + " skipped as unchanged");
+
+        ServerListCache cache = storageManager.cache();
+        source.sendMessage("Server list cache: " + cache.size() + " entries, " + (cache.bytes() / 1024) + "KB, " + cache.hits() + " hits, "
+            + cache.misses() + " misses, " + cache.evictions() + " evicted, " + cache.expirations() + " expired");
+
+        source.sendMessage("Form image refreshes: " + PacketHandler.formImageRefreshesScheduled() + " scheduled, "
+            + PacketHandler.formImageRefreshesCoalesced() + " coalesced, " + timingWheel.pending() + " pending");
+
+        if (statusService != null) {
+            source.sendMessage("Server status: " + statusService.tracked() + " servers tracked, " + statusService.probes() + " pings, "
+                + statusService.failures() + " failed");
+        }
+
+        if (endpointProber != null) {
+            source.sendMessage("Server endpoints: " + endpointProber.healthy() + "/" + endpointProber.tracked() + " healthy, " + endpointProber.probes() + " pings, "
+                + endpointProber.failures() + " failed, " + endpointProber.selections() + " picked, " + endpointProber.alternates() + " not the first");
+        }
+
+        if (admissionController != null) {
+            source.sendMessage("Admission: " + admissionController.joining() + " joining, " + admissionController.queueSize() + " queued now, "
+                + admissionController.admitted() + " admitted, " + admissionController.queued() + " queued, " + admissionController.rateLimited() + " rate limited, "
+                + admissionController.rejected() + " rejected as queue full, " + admissionController.timedOut() + " timed out in queue");
+        }
+
+        if (clusterManager != null) {
+            NodeLoad self = clusterManager.self();
+            if (self != null) {
+                source.sendMessage("Cluster: " + clusterManager.members() + " other nodes, " + self.sessions() + "/" + self.capacity() + " players, "
+                    + String.format("%.0f%% cpu, %dms lag, %.2f pressure, ", self.cpu() * 100, self.lag(), self.pressure(config.cluster().maxCpu(), config.cluster().maxLag()))
+                    + clusterManager.redirects() + " redirected, " + clusterManager.publishFailures() + " failed publishes");
+            }
+        }
+
+        if (dnsResolver != null) {
+            source.sendMessage("DNS cache: " + dnsResolver.size() + " entries, " + dnsResolver.hits() + " hits (" + dnsResolver.negativeHits() + " negative), "
+                + dnsResolver.misses() + " misses, " + dnsResolver.prefetches() + " prefetched, " + dnsResolver.evictions() + " evicted");
+            source.sendMessage("DNS lookups: " + dnsResolver.lookups() + " lookups, " + dnsResolver.failures() + " failed, "
+                + String.format("%.2fms avg, %.2fms max", dnsResolver.averageLookupNanos() / 1e6, dnsResolver.maxLookupNanos() / 1e6));
+        }
+
+        if (dnsResponder != null) {
+            source.sendMessage("DNS server: " + dnsResponder.queries() + " queries, " + dnsResponder.answered() + " answered, "
+                + dnsResponder.nameErrors() + " unknown names, " + dnsResponder.forwarded() + " forwarded, "
+                + dnsResponder.refused() + " refused, " + dnsResponder.dropped() + " dropped");
+        }
+
+        JoinTimer.Timings fastPath = joinTimer.fastPath();
+        JoinTimer.Timings lobby = joinTimer.lobby();
+        source.sendMessage("Time to downstream: " + fastPath.count() + " fast path joins, "
+            + String.format("%.2fms avg, %.2fms max", fastPath.averageNanos() / 1e6, fastPath.maxNanos() / 1e6) + "; "
+            + lobby.count() + " lobby joins, " + String.format("%.2fms avg, %.2fms max", lobby.averageNanos() / 1e6, lobby.maxNanos() / 1e6));
+
+        for (ConnectionPool pool : storageManager.connectionPools()) {
+            source.sendMessage(pool.name() + " pool: " + pool.active() + " active, " + pool.open() + "/" + pool.maxSize() + " open, "
+                + pool.opened() + " opened, " + pool.evicted() + " evicted, " + pool.timeouts() + " timeouts, "
+                + String.format("%.2fms avg wait, %.2fms max wait", pool.averageWaitNanos() / 1e6, pool.maxWaitNanos() / 1e6));
+        }
+    }
+
     private List<GeyserSession> getGeyserSessions() {
         return this.geyserApi().onlineConnections().stream().map(connection -> (GeyserSession) connection).toList();
     }
@@ -25,35 +25,45 @@
 
 package org.geysermc.extension.connect;
 
-import org.cloudburstmc.protocol.bedrock.data.AttributeData;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
+import org.cloudburstmc.protocol.bedrock.packet.ModalFormResponsePacket;
 import org.cloudburstmc.protocol.bedrock.packet.NetworkStackLatencyPacket;
 import org.cloudburstmc.protocol.bedrock.packet.ResourcePackChunkRequestPacket;
 import org.cloudburstmc.protocol.bedrock.packet.ResourcePackClientResponsePacket;
 import org.cloudburstmc.protocol.bedrock.packet.SetLocalPlayerAsInitializedPacket;
 import org.cloudburstmc.protocol.bedrock.packet.UpdateAttributesPacket;
 import org.cloudburstmc.protocol.common.PacketSignal;
-import org.geysermc.extension.connect.config.VirtualHostSection;
+import org.geysermc.extension.connect.admission.AdmissionController;
+import org.geysermc.extension.connect.cluster.ClusterManager;
+import org.geysermc.extension.connect.jobs.DrainController;
+import org.geysermc.extension.connect.metrics.Metrics;
 import org.geysermc.extension.connect.ui.UIHandler;
 import org.geysermc.extension.connect.utils.Server;
 import org.geysermc.extension.connect.utils.ServerManager;
+import org.geysermc.extension.connect.utils.JoinTimer;
 import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.extension.connect.utils.VirtualHostRouter;
 import org.geysermc.geyser.entity.attribute.GeyserAttributeType;
 import org.geysermc.geyser.network.UpstreamPacketHandler;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.DimensionUtils;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PacketHandler extends UpstreamPacketHandler {
+    private static final UpdateAttributesPacket FORM_IMAGE_REFRESH = formImageRefresh();
+
+    private static final LongAdder formImageRefreshesScheduled = new LongAdder();
+    private static final LongAdder formImageRefreshesCoalesced = new LongAdder();
 
     private final GeyserSession session;
     private final GeyserConnect geyserConnect;
     private final BedrockPacketHandler originalPacketHandler;
+    private final UIHandler uiHandler;
+    private final AtomicBoolean formImageRefreshPending = new AtomicBoolean();
 
     public PacketHandler(GeyserConnect geyserConnect, GeyserSession session, BedrockPacketHandler packetHandler) {
         super(session.getGeyser(), session);
@@ -61,6 +71,7 @@ public class PacketHandler extends UpstreamPacketHandler {
         this.session = session;
         this.geyserConnect = geyserConnect;
         this.originalPacketHandler = packetHandler;
+        this.uiHandler = new UIHandler(session, packetHandler);
 
         // Spawn the player in the end (it just looks better)
         DimensionUtils.setBedrockDimension(session, 2);
@@ -78,48 +89,46 @@ public class PacketHandler extends UpstreamPacketHandler {
     public PacketSignal handle(SetLocalPlayerAsInitializedPacket packet) {
         geyserConnect.logger().debug("Player initialized: " + Utils.displayName(session));
 
-        // Handle the virtual host if specified
-        VirtualHostSection vhost = geyserConnect.config().vhost();
-        if (vhost.enabled()) {
-            String domain = session.getClientData().getServerAddress();
-
-            // Build the regex matcher for the vhosts
-            Pattern regex = Pattern.compile("\\.?(" + vhost.domains().stream().map(Pattern::quote).collect(Collectors.joining("|")) + ")(:[0-9]+)?$");
-
-            if (regex.matcher(domain).find()) {
-                String target = domain.replaceAll(regex.pattern(), "").strip();
-                if (!target.isEmpty()) {
-                    String address = "";
-                    int port = 25565;
-                    boolean online = true;
-
-                    // Parse the address used
-                    String[] domainParts = target.split("\\._");
-                    for (int i = 0; i < domainParts.length; i++) {
-                        String part = domainParts[i];
-                        if (i == 0) {
-                            address = part;
-                        } else if (part.startsWith("p")) {
-                            port = Integer.parseInt(part.substring(1));
-                        } else if (part.startsWith("o")) {
-                            online = false;
-                        }
-                    }
-
-                    // They didn't specify an address so disconnect them
-                    if (address.startsWith("_")) {
-                        session.disconnect("disconnectionScreen.invalidIP");
-                        return PacketSignal.HANDLED;
-                    }
+        // Players who were still joining when the drain started go straight to the peer
+        DrainController drainController = geyserConnect.drainController();
+        if (drainController != null && drainController.draining()) {
+            drainController.redirect(session);
+            return PacketSignal.HANDLED;
+        }
 
-                    // Log the virtual host usage
-                    geyserConnect.logger().info(Utils.displayName(session) + " is using virtualhost: " + address + ":" + port + (!online ? " (offline)" : ""));
+        // Hold queued players here, without loading anything for them, until there is room
+        AdmissionController admissionController = geyserConnect.admissionController();
+        if (admissionController != null && admissionController.waitForAdmission(session, () -> handle(packet))) {
+            uiHandler.sendQueueForm();
+            return PacketSignal.HANDLED;
+        }
 
-                    // Send the player to the wanted server
-                    Utils.sendToServer(session, originalPacketHandler, new Server(address, port, online, false, null, null, null));
+        geyserConnect.joinTimer().mark(session.xuid(), JoinTimer.Stage.SPAWNED);
 
+        // Handle the virtual host if specified
+        if (geyserConnect.config().vhost().enabled()) {
+            VirtualHostRouter.Route route = geyserConnect.virtualHostRouter().route(session.getClientData().getServerAddress());
+            if (route != null) {
+                // They didn't specify a valid address so disconnect them
+                if (!route.valid()) {
+                    Metrics.VHOST_INVALID.increment();
+                    session.disconnect("disconnectionScreen.invalidIP");
                     return PacketSignal.HANDLED;
                 }
+
+                Metrics.VHOST_ROUTES.increment();
+                Server server = route.server();
+
+                // Log the virtual host usage
+                geyserConnect.logger().info(Utils.displayName(session) + " is using virtualhost: " + server.address() + ":" + server.port() + (!server.online() ? " (offline)" : ""));
+
+                // Send the player to the wanted server
+                Utils.sendToServer(session, originalPacketHandler, server);
+                if (admissionController != null) {
+                    admissionController.joined(session);
+                }
+
+                return PacketSignal.HANDLED;
             }
         }
 
@@ -128,11 +137,20 @@ public class PacketHandler extends UpstreamPacketHandler {
             if (!session.getUpstream().isInitialized()) {
                 session.getUpstream().setInitialized(true);
 
-                // Load the players servers
+                // Send them to another node before building anything if this one is overloaded
+                ClusterManager clusterManager = geyserConnect.clusterManager();
+                if (clusterManager != null && clusterManager.redirect(session)) {
+                    return PacketSignal.HANDLED;
+                }
+
+                // Start loading the players servers, this doesn't block
+                // so the menu can be shown while storage is still working
                 ServerManager.loadServers(session);
 
-                UIHandler uiHandler = new UIHandler(session, originalPacketHandler);
                 uiHandler.initialiseSession();
+                if (admissionController != null) {
+                    admissionController.joined(session);
+                }
             }
         }
 
@@ -142,17 +160,58 @@ public class PacketHandler extends UpstreamPacketHandler {
     @Override
     public PacketSignal handle(NetworkStackLatencyPacket packet) {
         // This is to fix a bug in the client where it doesn't load form images
+        if (!geyserConnect.config().disableFormImageFix()) {
+            // Clients send these a lot so only keep one refresh waiting at a time
+            if (formImageRefreshPending.compareAndSet(false, true)) {
+                formImageRefreshesScheduled.increment();
+
+                // Doesn't work 100% of the time but fixes it most of the time
+                geyserConnect.timingWheel().schedule(() -> {
+                    formImageRefreshPending.set(false);
+                    if (!session.isClosed()) {
+                        session.sendUpstreamPacket(FORM_IMAGE_REFRESH);
+                    }
+                }, 500, TimeUnit.MILLISECONDS);
+            } else {
+                formImageRefreshesCoalesced.increment();
+            }
+        }
+
+        return super.handle(packet);
+    }
+
+    /**
+     * Create the packet sent to get clients to load form images, it is sent to every session so must never be modified
+     */
+    private static UpdateAttributesPacket formImageRefresh() {
         UpdateAttributesPacket updateAttributesPacket = new UpdateAttributesPacket();
         updateAttributesPacket.setRuntimeEntityId(1);
-        List<AttributeData> attributes = Collections.singletonList(GeyserAttributeType.EXPERIENCE_LEVEL.getAttribute(0f));
-        updateAttributesPacket.setAttributes(attributes);
+        updateAttributesPacket.setAttributes(List.of(GeyserAttributeType.EXPERIENCE_LEVEL.getAttribute(0f)));
+        return updateAttributesPacket;
+    }
+
+    public static long formImageRefreshesScheduled() {
+        return formImageRefreshesScheduled.sum();
+    }
 
-        // Doesn't work 100% of the time but fixes it most of the time
-        session.getGeyser().getScheduledThread().schedule(() -> session.sendUpstreamPacket(updateAttributesPacket), 500, TimeUnit.MILLISECONDS);
+    public static long formImageRefreshesCoalesced() {
+        return formImageRefreshesCoalesced.sum();
+    }
 
+    @Override
+    public PacketSignal handle(ModalFormResponsePacket packet) {
+        uiHandler.formAnswered();
         return super.handle(packet);
     }
 
+    /**
+     * @param session The session to check
+     * @return If the player is in the GeyserConnect menus rather than on a server
+     */
+    public static boolean inMenus(GeyserSession session) {
+        return session.getUpstream().getSession().getPacketHandler() instanceof PacketHandler;
+    }
+
     @Override
     public PacketSignal handle(ResourcePackClientResponsePacket packet) {
         return originalPacketHandler.handle(packet); // relies on state in the original handler
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.admission;
+
+import org.geysermc.extension.connect.config.AdmissionSection;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.net.InetAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which players are let in and when, so a flood of joins can't overwhelm the server.
+ * <p>
+ * Connections over the global or per IP join rate are refused before Geyser sets up a session for them.
+ * Only a limited amount of players can be joining at once, a join lasting until the player reaches the menu
+ * or their server. Players over that limit wait in the lobby with a "please wait" form, without their servers
+ * loaded, until there is room for them or the queue is full and they are turned away.
+ */
+public class AdmissionController {
+    public static final String BUSY_MESSAGE = "GeyserConnect is busy, please try again in a moment";
+
+    // Per IP buckets are dropped once they refill, but this caps memory if a flood comes from many addresses
+    private static final int MAX_TRACKED_ADDRESSES = 65536;
+    private static final long SWEEP_INTERVAL_SECONDS = 1;
+
+    private final AdmissionSection config;
+    private final TimingWheel timingWheel;
+
+    private final TokenBucket globalBucket;
+    private final Map<InetAddress, TokenBucket> addressBuckets = new ConcurrentHashMap<>();
+
+    private final Semaphore joinSlots;
+    private final Set<GeyserSession> joining = ConcurrentHashMap.newKeySet();
+    private final LinkedHashMap<GeyserSession, Waiting> queue = new LinkedHashMap<>();
+    private volatile boolean running = true;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public AdmissionController(AdmissionSection config, TimingWheel timingWheel) {
+        this.config = config;
+        this.timingWheel = timingWheel;
+        this.globalBucket = new TokenBucket(config.joinsPerSecond(), 1, TimeUnit.SECONDS, config.joinBurst());
+        this.joinSlots = new Semaphore(config.maxConcurrentJoins());
+    }
+
+    public void start() {
+        sweep();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Check a connection against the join rates, this is the earliest point a connection can be refused
+     *
+     * @param address The address of the player
+     * @return If the connection is allowed
+     */
+    public boolean tryConnect(InetAddress address) {
+        TokenBucket bucket = addressBuckets.get(address);
+        if (bucket == null && addressBuckets.size() < MAX_TRACKED_ADDRESSES) {
+            bucket = addressBuckets.computeIfAbsent(address, key -> new TokenBucket(config.ipJoinsPerMinute(), 1, TimeUnit.MINUTES, config.ipJoinBurst()));
+        }
+
+        // Check the address first so one address going over can't use up the global rate
+        if ((bucket != null && !bucket.tryTake()) || !globalBucket.tryTake()) {
+            rateLimited.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Start a join, taking a join slot if there is one free
+     *
+     * @param session The session of the player
+     * @return If the player is admitted, queued or should be disconnected
+     */
+    public Admission join(GeyserSession session) {
+        if (joinSlots.tryAcquire()) {
+            joining.add(session);
+            admitted.increment();
+            return Admission.ADMITTED;
+        }
+
+        synchronized (queue) {
+            if (queue.size() < config.queueSize()) {
+                queue.put(session, new Waiting(System.nanoTime()));
+                queued.increment();
+                return Admission.QUEUED;
+            }
+        }
+
+        rejected.increment();
+        return Admission.REJECTED;
+    }
+
+    /**
+     * Wait for a queued player to be admitted
+     *
+     * @param session The session of the player
+     * @param onAdmitted Ran on the session's event loop once the player is admitted
+     * @return If the player is queued, otherwise they can carry on straight away and onAdmitted won't be ran
+     */
+    public boolean waitForAdmission(GeyserSession session, Runnable onAdmitted) {
+        synchronized (queue) {
+            Waiting waiting = queue.get(session);
+            if (waiting == null) {
+                return false;
+            }
+
+            waiting.onAdmitted = onAdmitted;
+            return true;
+        }
+    }
+
+    /**
+     * @param session The session of the player
+     * @return The place of the player in the queue starting at 1, or 0 if they aren't queued
+     */
+    public int position(GeyserSession session) {
+        synchronized (queue) {
+            int position = 1;
+            for (GeyserSession queuedSession : queue.keySet()) {
+                if (queuedSession == session) {
+                    return position;
+                }
+                position++;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finish the join of a player, freeing their join slot
+     *
+     * @param session The session of the player
+     */
+    public void joined(GeyserSession session) {
+        if (joining.remove(session)) {
+            joinSlots.release();
+            admitNext();
+        }
+    }
+
+    /**
+     * Forget about a player that has disconnected
+     *
+     * @param session The session of the player
+     */
+    public void left(GeyserSession session) {
+        synchronized (queue) {
+            queue.remove(session);
+        }
+        joined(session);
+    }
+
+    private void admitNext() {
+        while (true) {
+            GeyserSession session;
+            Runnable onAdmitted;
+            synchronized (queue) {
+                if (queue.isEmpty() || !joinSlots.tryAcquire()) {
+                    return;
+                }
+
+                Iterator<Map.Entry<GeyserSession, Waiting>> iterator = queue.entrySet().iterator();
+                Map.Entry<GeyserSession, Waiting> next = iterator.next();
+                iterator.remove();
+
+                session = next.getKey();
+                onAdmitted = next.getValue().onAdmitted;
+                joining.add(session);
+            }
+
+            admitted.increment();
+
+            // Players who haven't reached the lobby yet carry on as normal once they do
+            if (onAdmitted != null) {
+                session.ensureInEventLoop(() -> {
+                    session.closeForm();
+                    onAdmitted.run();
+                });
+            }
+        }
+    }
+
+    private void sweep() {
+        if (!running) return;
+
+        long timeout = TimeUnit.SECONDS.toNanos(config.queueTimeout());
+        long now = System.nanoTime();
+        synchronized (queue) {
+            Iterator<Map.Entry<GeyserSession, Waiting>> iterator = queue.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<GeyserSession, Waiting> entry = iterator.next();
+                // The queue is in join order so everyone after this has waited less
+                if (now - entry.getValue().queuedAt < timeout) {
+                    break;
+                }
+
+                iterator.remove();
+                timedOut.increment();
+                GeyserSession session = entry.getKey();
+                session.ensureInEventLoop(() -> session.disconnect(BUSY_MESSAGE));
+            }
+        }
+
+        addressBuckets.values().removeIf(TokenBucket::isFull);
+
+        timingWheel.schedule(this::sweep, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public int joining() {
+        return joining.size();
+    }
+
+    public int queueSize() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    public long queued() {
+        return queued.sum();
+    }
+
+    public long rateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long timedOut() {
+        return timedOut.sum();
+    }
+
+    public enum Admission {
+        ADMITTED,
+        QUEUED,
+        REJECTED
+    }
+
+    private static final class Waiting {
+        private final long queuedAt;
+        private Runnable onAdmitted;
+
+        private Waiting(long queuedAt) {
+            this.queuedAt = queuedAt;
+        }
+    }
+}
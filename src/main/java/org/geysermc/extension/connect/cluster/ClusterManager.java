@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.cluster;
+
+import org.cloudburstmc.protocol.bedrock.packet.TransferPacket;
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.ClusterSection;
+import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.geyser.api.connection.GeyserConnection;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the load of this node to the cluster and sends new players to the least loaded node while this one is
+ * overloaded. A node is overloaded once it reaches its player capacity, CPU limit or event loop lag limit.
+ */
+public class ClusterManager {
+    // Only time this many event loops each round, there are rarely more than one per core
+    private static final int MAX_LAG_PROBES = 64;
+
+    private final ClusterSection config;
+    private final ClusterMembership membership;
+    private final int capacity;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicLong lag = new AtomicLong();
+    private volatile NodeLoad self;
+
+    // Players sent to each node since it last published, so a burst of joins isn't all sent to the same node
+    private final Map<String, Redirects> redirected = new ConcurrentHashMap<>();
+
+    private final LongAdder redirects = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+
+    /**
+     * @param config The cluster config
+     * @param membership The membership backend to share load with
+     * @param capacity How many players this node is meant to hold
+     */
+    public ClusterManager(ClusterSection config, ClusterMembership membership, int capacity) {
+        this.config = config;
+        this.membership = membership;
+        this.capacity = capacity;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("Cluster"));
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::publish, 0, config.interval(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop publishing and leave the cluster
+     */
+    public void stop() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        membership.close();
+    }
+
+    private void publish() {
+        Collection<? extends GeyserConnection> connections = GeyserConnect.instance().geyserApi().onlineConnections();
+        NodeLoad load = new NodeLoad(config.nodeId(), config.address(), config.port(), connections.size(), capacity,
+            cpu(), TimeUnit.NANOSECONDS.toMillis(lag.getAndSet(0)), System.currentTimeMillis());
+        self = load;
+
+        try {
+            membership.publish(load);
+        } catch (IOException e) {
+            publishFailures.increment();
+            GeyserConnect.instance().logger().debug("Failed to publish load to the cluster: " + e.getMessage());
+        }
+
+        probeLag(connections);
+    }
+
+    /**
+     * Time how long a task waits to run on each event loop, the worst is published next round
+     */
+    private void probeLag(Collection<? extends GeyserConnection> connections) {
+        Set<Object> eventLoops = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GeyserConnection connection : connections) {
+            GeyserSession session = (GeyserSession) connection;
+            if (!eventLoops.add(session.getEventLoop())) continue;
+
+            long queuedAt = System.nanoTime();
+            session.executeInEventLoop(() -> lag.accumulateAndGet(System.nanoTime() - queuedAt, Math::max));
+
+            if (eventLoops.size() >= MAX_LAG_PROBES) break;
+        }
+    }
+
+    private static double cpu() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            // Negative when it isn't known yet
+            return Math.max(sunOs.getProcessCpuLoad(), 0);
+        }
+        return 0;
+    }
+
+    /**
+     * Pick the node to send a new player to
+     *
+     * @return The least loaded node, or null if this node isn't overloaded or there is nowhere better
+     */
+    public NodeLoad select() {
+        NodeLoad current = self;
+        if (current == null) {
+            return null;
+        }
+
+        // Use the live player count for ourselves as it moves faster than we publish
+        int sessions = GeyserConnect.instance().geyserApi().onlineConnections().size();
+        return select(new NodeLoad(current.id(), current.address(), current.port(), sessions, current.capacity(), current.cpu(), current.lag(), current.updated()));
+    }
+
+    /**
+     * Pick the node to send a new player to, counting the players already sent to each node since it last published
+     *
+     * @param current The current load of this node
+     * @return The least loaded node, or null if this node isn't overloaded or there is nowhere better
+     */
+    NodeLoad select(NodeLoad current) {
+        double pressure = current.pressure(config.maxCpu(), config.maxLag());
+        if (pressure < 1) {
+            return null;
+        }
+
+        NodeLoad best = null;
+        double bestPressure = pressure;
+        for (NodeLoad member : membership.members()) {
+            Redirects sent = redirected.get(member.id());
+            if (sent != null && sent.current(member)) {
+                member = new NodeLoad(member.id(), member.address(), member.port(), member.sessions() + sent.count.get(),
+                    member.capacity(), member.cpu(), member.lag(), member.updated());
+            }
+
+            double memberPressure = member.pressure(config.maxCpu(), config.maxLag());
+            if (memberPressure < 1 && memberPressure < bestPressure) {
+                best = member;
+                bestPressure = memberPressure;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Send a new player to the least loaded node if this one is overloaded
+     *
+     * @param session The player
+     * @return If the player was sent to another node
+     */
+    public boolean redirect(GeyserSession session) {
+        NodeLoad target = select();
+        if (target == null) {
+            return false;
+        }
+        redirected(target);
+
+        GeyserConnect.instance().logger().info("Sending " + Utils.displayName(session) + " to cluster node " + target.id() + " as this node is overloaded");
+
+        TransferPacket transferPacket = new TransferPacket();
+        transferPacket.setAddress(target.address());
+        transferPacket.setPort(target.port());
+        session.sendUpstreamPacket(transferPacket);
+        return true;
+    }
+
+    /**
+     * Count a player as sent to a node until it next publishes its load
+     *
+     * @param target The node the player was sent to
+     */
+    void redirected(NodeLoad target) {
+        redirected.compute(target.id(), (id, sent) -> sent != null && sent.current(target) ? sent : new Redirects(target.updated(), config.interval()))
+            .count.incrementAndGet();
+        redirects.increment();
+    }
+
+    /**
+     * @return The load this node last published, or null if it hasn't yet
+     */
+    public NodeLoad self() {
+        return self;
+    }
+
+    public int members() {
+        return membership.members().size();
+    }
+
+    public long redirects() {
+        return redirects.sum();
+    }
+
+    public long publishFailures() {
+        return publishFailures.sum();
+    }
+
+    private static final class Redirects {
+        private final long updated;
+        private final long interval;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Redirects(long updated, int interval) {
+            this.updated = updated;
+            this.interval = TimeUnit.SECONDS.toMillis(interval);
+        }
+
+        /**
+         * Gossip can give the same load slightly different times depending on the path it took,
+         * so only a load from a later round counts as the node having published again
+         */
+        private boolean current(NodeLoad load) {
+            return load.updated() - updated < interval / 2;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.cluster;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.utils.Utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares load over UDP. Each node sends its own load, along with the latest load it has heard from other nodes,
+ * to its seeds and every node it knows of, so nodes only need a single seed in common to find each other.
+ * Loads are sent with their age rather than a timestamp so they don't depend on the clocks of the nodes they passed through.
+ * <p>
+ * Packets are signed with an HMAC of a secret shared by the nodes, otherwise anyone able to reach the gossip port
+ * could claim to be an idle node and have players sent to an address of their choosing. The signed send time is
+ * checked as well so a captured packet can't be replayed later, which means the clocks of the nodes need to agree
+ * to within the expiry.
+ */
+public class GossipMembership implements ClusterMembership {
+    private static final int MAGIC = 0x47434e32; // GCN2
+    private static final int MAX_PACKET_LENGTH = 1400;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    private final String nodeId;
+    private final List<InetSocketAddress> seeds;
+    private final long expiry;
+    private final DatagramSocket socket;
+    private final Thread receiver;
+
+    // Macs aren't thread safe, publishing and receiving each happen on their own thread
+    private final Mac publishMac;
+    private final Mac receiveMac;
+
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    // The send time of the latest packet from each node, so older packets can't be replayed
+    private final Map<String, Long> lastSent = new ConcurrentHashMap<>();
+
+    /**
+     * @param nodeId The id of this node
+     * @param bindAddress The address to listen for other nodes on
+     * @param seeds The nodes to send to until others are heard from
+     * @param expiry How long in milliseconds a node is remembered after it was last heard from
+     * @param secret The secret shared by the nodes to sign packets with
+     * @throws IOException If the address couldn't be bound
+     */
+    public GossipMembership(String nodeId, InetSocketAddress bindAddress, List<InetSocketAddress> seeds, long expiry, String secret) throws IOException {
+        this.nodeId = nodeId;
+        this.seeds = List.copyOf(seeds);
+        this.expiry = expiry;
+        this.publishMac = mac(secret);
+        this.receiveMac = mac(secret);
+        this.socket = new DatagramSocket(bindAddress);
+
+        this.receiver = Utils.threadFactory("Cluster Gossip").newThread(this::receive);
+        this.receiver.start();
+    }
+
+    private static Mac mac(String secret) {
+        if (secret.isEmpty()) {
+            throw new IllegalArgumentException("A gossip secret is needed to sign packets");
+        }
+
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 isn't available", e);
+        }
+    }
+
+    /**
+     * Parse the address of a node from the config
+     *
+     * @param address The address, optionally with a port such as 10.0.0.2:19140
+     * @param defaultPort The port to use if there isn't one
+     * @return The node address
+     */
+    public static InetSocketAddress parseAddress(String address, int defaultPort) {
+        String host = address.trim();
+        int port = defaultPort;
+
+        int portSeparator = host.lastIndexOf(':');
+        if (portSeparator != -1 && host.indexOf(':') == portSeparator) {
+            port = Integer.parseInt(host.substring(portSeparator + 1));
+            host = host.substring(0, portSeparator);
+        }
+        return new InetSocketAddress(host, port);
+    }
+
+    @Override
+    public void publish(NodeLoad self) throws IOException {
+        long now = System.currentTimeMillis();
+        members.values().removeIf(member -> now - member.load().updated() > expiry);
+        lastSent.values().removeIf(sent -> now - sent > expiry);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_PACKET_LENGTH);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeLong(now);
+        write(out, self, now, "");
+
+        // Pass on what we have heard so nodes learn about each other through us
+        Set<SocketAddress> targets = new LinkedHashSet<>(seeds);
+        for (Member member : members.values()) {
+            targets.add(member.gossipAddress());
+            if (bytes.size() < MAX_PACKET_LENGTH - MAC_LENGTH - 256) {
+                write(out, member.load(), now, member.gossipAddress().getHostString() + ":" + member.gossipAddress().getPort());
+            }
+        }
+
+        out.write(publishMac.doFinal(bytes.toByteArray()));
+
+        byte[] data = bytes.toByteArray();
+        for (SocketAddress target : targets) {
+            try {
+                socket.send(new DatagramPacket(data, data.length, target));
+            } catch (IOException e) {
+                GeyserConnect.instance().logger().debug("Failed to send cluster gossip to " + target + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void write(DataOutputStream out, NodeLoad load, long now, String gossipAddress) throws IOException {
+        out.writeUTF(load.id());
+        out.writeUTF(load.address());
+        out.writeInt(load.port());
+        out.writeInt(load.sessions());
+        out.writeInt(load.capacity());
+        out.writeFloat((float) load.cpu());
+        out.writeInt((int) load.lag());
+        out.writeInt((int) Math.max(now - load.updated(), 0));
+        out.writeUTF(gossipAddress);
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MAX_PACKET_LENGTH];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+
+                int length = packet.getLength() - MAC_LENGTH;
+                if (length < 4) continue;
+
+                receiveMac.update(buffer, 0, length);
+                if (!MessageDigest.isEqual(receiveMac.doFinal(), Arrays.copyOfRange(buffer, length, length + MAC_LENGTH))) {
+                    GeyserConnect.instance().logger().debug("Ignoring cluster gossip with an invalid signature from " + packet.getSocketAddress());
+                    continue;
+                }
+
+                read(new DataInputStream(new ByteArrayInputStream(buffer, 0, length)), (InetSocketAddress) packet.getSocketAddress());
+            } catch (IOException | RuntimeException e) {
+                if (!socket.isClosed()) {
+                    GeyserConnect.instance().logger().debug("Ignoring invalid cluster gossip: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(DataInputStream in, InetSocketAddress sender) throws IOException {
+        if (in.readInt() != MAGIC) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long sent = in.readLong();
+        if (Math.abs(now - sent) > expiry) {
+            GeyserConnect.instance().logger().debug("Ignoring cluster gossip sent " + (now - sent) + "ms ago from " + sender);
+            return;
+        }
+
+        boolean first = true;
+        while (in.available() > 0) {
+            String id = in.readUTF();
+            NodeLoad load = new NodeLoad(id, in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readFloat(), in.readInt(), now - in.readInt());
+            String gossipAddress = in.readUTF();
+
+            // The sender doesn't know the address we see it on, so the first entry always uses the packet address
+            InetSocketAddress address = first ? sender : parseAddress(gossipAddress, sender.getPort());
+            if (first) {
+                // The first entry is always the sender itself
+                Long previous = lastSent.get(id);
+                if (previous != null && sent <= previous) {
+                    GeyserConnect.instance().logger().debug("Ignoring replayed cluster gossip from " + sender);
+                    return;
+                }
+                lastSent.put(id, sent);
+            }
+            first = false;
+
+            if (id.equals(nodeId) || now - load.updated() > expiry) continue;
+
+            members.merge(id, new Member(load, address), (existing, updated) -> updated.load().updated() > existing.load().updated() ? updated : existing);
+        }
+    }
+
+    @Override
+    public List<NodeLoad> members() {
+        long now = System.currentTimeMillis();
+        List<NodeLoad> loads = new ArrayList<>();
+        for (Member member : members.values()) {
+            if (now - member.load().updated() <= expiry) {
+                loads.add(member.load());
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * @return The address this node is listening for gossip on
+     */
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        try {
+            receiver.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Member(NodeLoad load, InetSocketAddress gossipAddress) {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.cluster;
+
+/**
+ * The load of a GeyserConnect node as published to the rest of the cluster
+ *
+ * @param id The id of the node
+ * @param address The address players are sent to for this node
+ * @param port The port players are sent to for this node
+ * @param sessions How many players are connected to the node
+ * @param capacity How many players the node is meant to hold
+ * @param cpu The CPU usage of the node's process, from 0 to 1
+ * @param lag The worst delay in milliseconds seen running a task on the node's event loops
+ * @param updated When this load was measured, in milliseconds by the clock of the node reading it
+ */
+public record NodeLoad(
+    String id,
+    String address,
+    int port,
+    int sessions,
+    int capacity,
+    double cpu,
+    long lag,
+    long updated) {
+
+    /**
+     * How close the node is to its limits, at 1 or above it is overloaded
+     *
+     * @param maxCpu The CPU usage a node can reach before it is overloaded
+     * @param maxLag The event loop lag in milliseconds a node can reach before it is overloaded
+     * @return The highest fraction of any limit the node is using
+     */
+    public double pressure(double maxCpu, long maxLag) {
+        double pressure = capacity > 0 ? (double) sessions / capacity : 0;
+        pressure = Math.max(pressure, cpu / maxCpu);
+        return Math.max(pressure, (double) lag / maxLag);
+    }
+}
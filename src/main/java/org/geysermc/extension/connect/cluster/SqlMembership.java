@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.cluster;
+
+import org.geysermc.extension.connect.storage.ConnectionPool;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares load through the database the nodes already use for custom servers.
+ * Rows are stamped with the clock of the node writing them so the clocks of the nodes need to roughly agree.
+ */
+public class SqlMembership implements ClusterMembership {
+    // Created here rather than as part of the storage schema so only clustered installs have it
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS cluster_nodes (id VARCHAR(255) NOT NULL, address VARCHAR(255) NOT NULL, port INT NOT NULL, "
+        + "sessions INT NOT NULL, capacity INT NOT NULL, cpu DOUBLE NOT NULL, event_loop_lag BIGINT NOT NULL, updated BIGINT NOT NULL, PRIMARY KEY(id))";
+    private static final String UPDATE_NODE = "UPDATE cluster_nodes SET address=?, port=?, sessions=?, capacity=?, cpu=?, event_loop_lag=?, updated=? WHERE id=?";
+    private static final String INSERT_NODE = "INSERT INTO cluster_nodes(address, port, sessions, capacity, cpu, event_loop_lag, updated, id) VALUES(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_NODES = "SELECT id, address, port, sessions, capacity, cpu, event_loop_lag, updated FROM cluster_nodes WHERE updated>? AND id<>?";
+    private static final String DELETE_NODE = "DELETE FROM cluster_nodes WHERE id=?";
+
+    private final ConnectionPool pool;
+    private final String nodeId;
+    private final long expiry;
+
+    private volatile List<NodeLoad> members = List.of();
+
+    /**
+     * @param pool The pool to use for the database
+     * @param nodeId The id of this node
+     * @param expiry How long in milliseconds a node is remembered after it last updated its row
+     * @throws IOException If the cluster_nodes table couldn't be created
+     */
+    public SqlMembership(ConnectionPool pool, String nodeId, long expiry) throws IOException {
+        this.pool = pool;
+        this.nodeId = nodeId;
+        this.expiry = expiry;
+
+        try (ConnectionPool.PooledConnection connection = pool.acquire();
+             Statement statement = connection.connection().createStatement()) {
+            statement.executeUpdate(CREATE_TABLE);
+        } catch (SQLException e) {
+            throw new IOException("Failed to create the cluster_nodes table", e);
+        }
+    }
+
+    @Override
+    public void publish(NodeLoad self) throws IOException {
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            try {
+                PreparedStatement update = connection.prepare(UPDATE_NODE);
+                setNode(update, self);
+                if (update.executeUpdate() == 0) {
+                    PreparedStatement insert = connection.prepare(INSERT_NODE);
+                    setNode(insert, self);
+                    insert.executeUpdate();
+                }
+
+                // Read the other nodes while we have a connection, members() is called on the event loops so mustn't block
+                PreparedStatement select = connection.prepare(SELECT_NODES);
+                select.setLong(1, self.updated() - expiry);
+                select.setString(2, nodeId);
+
+                List<NodeLoad> loads = new ArrayList<>();
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        loads.add(new NodeLoad(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getDouble(6), rs.getLong(7), rs.getLong(8)));
+                    }
+                }
+                members = loads;
+            } catch (SQLException e) {
+                connection.invalidate();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to publish to the cluster_nodes table", e);
+        }
+    }
+
+    private static void setNode(PreparedStatement statement, NodeLoad load) throws SQLException {
+        statement.setString(1, load.address());
+        statement.setInt(2, load.port());
+        statement.setInt(3, load.sessions());
+        statement.setInt(4, load.capacity());
+        statement.setDouble(5, load.cpu());
+        statement.setLong(6, load.lag());
+        statement.setLong(7, load.updated());
+        statement.setString(8, load.id());
+    }
+
+    @Override
+    public List<NodeLoad> members() {
+        return members;
+    }
+
+    @Override
+    public void close() {
+        // Let the other nodes stop sending players here straight away
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement delete = connection.prepare(DELETE_NODE);
+            delete.setString(1, nodeId);
+            delete.executeUpdate();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.config;
+
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+
+@ConfigSerializable
+public record AdmissionSection(
+    boolean enabled,
+    int joinsPerSecond,
+    int joinBurst,
+    int ipJoinsPerMinute,
+    int ipJoinBurst,
+    int maxConcurrentJoins,
+    int queueSize,
+    int queueTimeout) {
+
+    @Override
+    public int joinsPerSecond() {
+        return joinsPerSecond > 0 ? joinsPerSecond : 20;
+    }
+
+    @Override
+    public int joinBurst() {
+        return joinBurst > 0 ? joinBurst : 40;
+    }
+
+    @Override
+    public int ipJoinsPerMinute() {
+        return ipJoinsPerMinute > 0 ? ipJoinsPerMinute : 10;
+    }
+
+    @Override
+    public int ipJoinBurst() {
+        return ipJoinBurst > 0 ? ipJoinBurst : 3;
+    }
+
+    @Override
+    public int maxConcurrentJoins() {
+        return maxConcurrentJoins > 0 ? maxConcurrentJoins : 32;
+    }
+
+    @Override
+    public int queueSize() {
+        return Math.max(queueSize, 0);
+    }
+
+    @Override
+    public int queueTimeout() {
+        return queueTimeout > 0 ? queueTimeout : 120;
+    }
+}
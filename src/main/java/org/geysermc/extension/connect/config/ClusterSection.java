@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.config;
+
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+
+import java.util.List;
+
+@ConfigSerializable
+public record ClusterSection(
+    boolean enabled,
+    String nodeId,
+    String address,
+    int port,
+    String membership,
+    String gossipAddress,
+    int gossipPort,
+    String gossipSecret,
+    List<String> seeds,
+    int interval,
+    int expiry,
+    int capacity,
+    double maxCpu,
+    int maxLag) {
+
+    @Override
+    public int port() {
+        return port > 0 ? port : 19132;
+    }
+
+    /**
+     * @return The id of this node, defaults to the address and port players are sent to
+     */
+    @Override
+    public String nodeId() {
+        return nodeId != null && !nodeId.isEmpty() ? nodeId : address() + ":" + port();
+    }
+
+    @Override
+    public String address() {
+        return address != null ? address : "";
+    }
+
+    @Override
+    public String membership() {
+        return membership != null ? membership : "gossip";
+    }
+
+    @Override
+    public String gossipAddress() {
+        return gossipAddress != null ? gossipAddress : "127.0.0.1";
+    }
+
+    @Override
+    public int gossipPort() {
+        return gossipPort > 0 ? gossipPort : 19140;
+    }
+
+    @Override
+    public String gossipSecret() {
+        return gossipSecret != null ? gossipSecret : "";
+    }
+
+    @Override
+    public List<String> seeds() {
+        return seeds != null ? seeds : List.of();
+    }
+
+    @Override
+    public int interval() {
+        return interval > 0 ? interval : 2;
+    }
+
+    @Override
+    public int expiry() {
+        return expiry > 0 ? expiry : 10;
+    }
+
+    @Override
+    public double maxCpu() {
+        return maxCpu > 0 ? maxCpu : 0.9;
+    }
+
+    @Override
+    public int maxLag() {
+        return maxLag > 0 ? maxLag : 100;
+    }
+}
@@ -34,7 +34,17 @@ import java.util.List;
 public record Config(
     String welcomeFile,
     boolean hardPlayerLimit,
+    boolean disableFormImageFix,
     List<Server> servers,
     CustomServersSection customServers,
-    VirtualHostSection vhost) {
+    VirtualHostSection vhost,
+    StatusSection status,
+    DnsSection dns,
+    DnsServerSection dnsServer,
+    EndpointProbingSection endpointProbing,
+    AdmissionSection admission,
+    JobsSection jobs,
+    DrainSection drain,
+    ClusterSection cluster,
+    MetricsSection metrics) {
 }
\ No newline at end of file
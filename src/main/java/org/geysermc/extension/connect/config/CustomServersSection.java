@@ -33,5 +33,30 @@ public record CustomServersSection(
     boolean enabled,
     int max,
     AbstractStorageManager.StorageType storageType,
+    int saveInterval,
+    int maxPendingSaves,
+    int ioThreads,
+    int poolSize,
+    ServerCacheSection cache,
     MySQLConnectionSection mysql) {
+
+    @Override
+    public int saveInterval() {
+        return saveInterval > 0 ? saveInterval : 1000;
+    }
+
+    @Override
+    public int maxPendingSaves() {
+        return maxPendingSaves > 0 ? maxPendingSaves : 1024;
+    }
+
+    @Override
+    public int ioThreads() {
+        return ioThreads > 0 ? ioThreads : 4;
+    }
+
+    @Override
+    public int poolSize() {
+        return poolSize > 0 ? poolSize : 4;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.config;
+
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+
+import java.util.List;
+
+@ConfigSerializable
+public record DnsSection(
+    boolean enabled,
+    List<String> resolvers,
+    int timeout,
+    int maxEntries,
+    int minTtl,
+    int maxTtl,
+    int negativeTtl) {
+
+    @Override
+    public List<String> resolvers() {
+        return resolvers != null ? resolvers : List.of();
+    }
+
+    @Override
+    public int timeout() {
+        return timeout > 0 ? timeout : 2000;
+    }
+
+    @Override
+    public int maxEntries() {
+        return maxEntries > 0 ? maxEntries : 4096;
+    }
+
+    @Override
+    public int minTtl() {
+        return Math.max(minTtl, 0);
+    }
+
+    @Override
+    public int maxTtl() {
+        return maxTtl > 0 ? maxTtl : 3600;
+    }
+
+    @Override
+    public int negativeTtl() {
+        return negativeTtl > 0 ? negativeTtl : 60;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.config;
+
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+
+import java.util.List;
+
+@ConfigSerializable
+public record DnsServerSection(
+    boolean enabled,
+    String address,
+    int port,
+    int ttl,
+    String upstream,
+    List<String> addresses,
+    List<String> domains) {
+
+    @Override
+    public String address() {
+        return address != null && !address.isEmpty() ? address : "0.0.0.0";
+    }
+
+    @Override
+    public int port() {
+        return port > 0 ? port : 53;
+    }
+
+    @Override
+    public int ttl() {
+        return ttl > 0 ? ttl : 300;
+    }
+
+    @Override
+    public String upstream() {
+        return upstream != null ? upstream : "";
+    }
+
+    @Override
+    public List<String> addresses() {
+        return addresses != null ? addresses : List.of();
+    }
+
+    @Override
+    public List<String> domains() {
+        return domains != null ? domains : List.of();
+    }
+}
@@ -32,5 +32,6 @@ import java.util.List;
 @ConfigSerializable
 public record VirtualHostSection(
     boolean enabled,
+    boolean fastPath,
     List<String> domains) {
 }
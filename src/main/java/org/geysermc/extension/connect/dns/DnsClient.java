@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A minimal blocking DNS client that sends queries over UDP to a list of recursive resolvers
+ */
+public class DnsClient {
+    private static final int DNS_PORT = 53;
+
+    private final List<InetSocketAddress> servers;
+    private final int timeout;
+
+    /**
+     * @param servers The resolvers to query, in the order they are tried
+     * @param timeout How long in milliseconds to wait for each resolver
+     */
+    public DnsClient(List<InetSocketAddress> servers, int timeout) {
+        this.servers = List.copyOf(servers);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Look up the records of a name, trying each resolver until one answers
+     *
+     * @param name The name to look up
+     * @param type The record type to look up
+     * @return The response from the first resolver that answered
+     * @throws IOException If no resolver answered
+     */
+    public DnsResponse query(String name, int type) throws IOException {
+        IOException failure = null;
+        for (InetSocketAddress server : servers) {
+            try {
+                DnsResponse response = query(server, name, type);
+                if (response.rcode() == DnsCodec.RCODE_NO_ERROR || response.rcode() == DnsCodec.RCODE_NAME_ERROR) {
+                    return response;
+                }
+                failure = new DnsException("Resolver " + server + " answered with code " + response.rcode());
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new DnsException("No resolvers configured");
+    }
+
+    private DnsResponse query(InetSocketAddress server, String name, int type) throws IOException {
+        // A new socket each time gives every query a random source port as well as a random id
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeout);
+
+            int id = ThreadLocalRandom.current().nextInt(0x10000);
+            ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_UDP_LENGTH);
+            DnsCodec.writeQuery(buffer, id, name, type);
+            socket.send(new DatagramPacket(buffer.array(), buffer.position(), server));
+
+            long deadline = System.nanoTime() + timeout * 1_000_000L;
+            byte[] receive = new byte[DnsCodec.MAX_UDP_LENGTH];
+            while (true) {
+                DatagramPacket packet = new DatagramPacket(receive, receive.length);
+                socket.receive(packet);
+
+                // Ignore anything that isn't the answer to this query
+                if (packet.getSocketAddress().equals(server)) {
+                    DnsResponse response = DnsCodec.readResponse(ByteBuffer.wrap(receive, 0, packet.getLength()), id, name, type);
+                    if (response != null) {
+                        if (response.truncated()) {
+                            throw new DnsException("Response from " + server + " was truncated");
+                        }
+                        return response;
+                    }
+                }
+
+                int remaining = (int) ((deadline - System.nanoTime()) / 1_000_000);
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("Timed out waiting for " + server);
+                }
+                socket.setSoTimeout(remaining);
+            }
+        }
+    }
+
+    /**
+     * Read the resolvers the system is using from /etc/resolv.conf
+     *
+     * @return The resolvers, empty if there are none or the system doesn't use resolv.conf
+     */
+    public static List<InetSocketAddress> systemResolvers() {
+        List<InetSocketAddress> resolvers = new ArrayList<>();
+        Path resolvConf = Path.of("/etc/resolv.conf");
+        if (!Files.isReadable(resolvConf)) {
+            return resolvers;
+        }
+
+        try {
+            for (String line : Files.readAllLines(resolvConf)) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length >= 2 && parts[0].equals("nameserver")) {
+                    resolvers.add(new InetSocketAddress(InetAddress.getByName(parts[1]), DNS_PORT));
+                }
+            }
+        } catch (IOException ignored) {
+        }
+
+        return resolvers;
+    }
+
+    /**
+     * Parse a resolver address from the config
+     *
+     * @param address The address, optionally with a port such as 1.1.1.1:53 or [::1]:53
+     * @return The resolver address
+     * @throws IOException If the address isn't an IP address
+     */
+    public static InetSocketAddress parseResolver(String address) throws IOException {
+        String host = address.trim();
+        int port = DNS_PORT;
+
+        int portSeparator = host.lastIndexOf(':');
+        if (host.startsWith("[")) {
+            int end = host.indexOf(']');
+            if (end == -1) {
+                throw new DnsException("Invalid resolver address " + address);
+            }
+            if (portSeparator > end) {
+                port = parsePort(address, host.substring(portSeparator + 1));
+            }
+            host = host.substring(1, end);
+        } else if (portSeparator != -1 && host.indexOf(':') == portSeparator) {
+            port = parsePort(address, host.substring(portSeparator + 1));
+            host = host.substring(0, portSeparator);
+        }
+
+        if (!isIpLiteral(host)) {
+            throw new DnsException("Resolver " + address + " must be an IP address");
+        }
+        return new InetSocketAddress(InetAddress.getByName(host), port);
+    }
+
+    private static int parsePort(String address, String port) throws DnsException {
+        try {
+            return Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            throw new DnsException("Invalid port in resolver address " + address);
+        }
+    }
+
+    /**
+     * @param host The host to check
+     * @return If the host is an IPv4 or IPv6 address rather than a name that needs resolving
+     */
+    public static boolean isIpLiteral(String host) {
+        if (host.indexOf(':') != -1) {
+            return true;
+        }
+
+        int dots = 0;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return dots == 3;
+    }
+}
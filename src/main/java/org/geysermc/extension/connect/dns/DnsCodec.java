@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads and writes the parts of the DNS wire format (RFC 1035) GeyserConnect needs
+ */
+public final class DnsCodec {
+    public static final int TYPE_A = 1;
+    public static final int TYPE_CNAME = 5;
+    public static final int TYPE_SOA = 6;
+    public static final int TYPE_AAAA = 28;
+    public static final int TYPE_SRV = 33;
+    public static final int CLASS_IN = 1;
+
+    public static final int RCODE_NO_ERROR = 0;
+    public static final int RCODE_SERVER_FAILURE = 2;
+    public static final int RCODE_NAME_ERROR = 3;
+    public static final int RCODE_REFUSED = 5;
+
+    public static final int HEADER_LENGTH = 12;
+    public static final int MAX_UDP_LENGTH = 512;
+
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int FLAG_TRUNCATED = 0x0200;
+    private static final int FLAG_RECURSION_DESIRED = 0x0100;
+    private static final int MAX_POINTERS = 16;
+
+    private DnsCodec() {
+    }
+
+    /**
+     * Write a recursive query for a single question
+     *
+     * @param buffer The buffer to write to
+     * @param id The id of the query
+     * @param name The name to look up
+     * @param type The record type to look up
+     */
+    public static void writeQuery(ByteBuffer buffer, int id, String name, int type) {
+        buffer.putShort((short) id);
+        buffer.putShort((short) FLAG_RECURSION_DESIRED);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        writeName(buffer, name);
+        buffer.putShort((short) type);
+        buffer.putShort((short) CLASS_IN);
+    }
+
+    /**
+     * Read a response to a query written by {@link #writeQuery(ByteBuffer, int, String, int)}
+     *
+     * @param buffer The buffer holding the response
+     * @param id The id of the query
+     * @param name The name that was looked up
+     * @param type The record type that was looked up
+     * @return The response or null if it isn't a response to the query
+     * @throws DnsException If the response is malformed
+     */
+    public static DnsResponse readResponse(ByteBuffer buffer, int id, String name, int type) throws DnsException {
+        try {
+            if (buffer.remaining() < HEADER_LENGTH || (buffer.getShort() & 0xFFFF) != id) {
+                return null;
+            }
+
+            int flags = buffer.getShort() & 0xFFFF;
+            if ((flags & FLAG_RESPONSE) == 0) {
+                return null;
+            }
+
+            int questions = buffer.getShort() & 0xFFFF;
+            int answers = buffer.getShort() & 0xFFFF;
+            int authorities = buffer.getShort() & 0xFFFF;
+            buffer.getShort();
+
+            if (questions != 1 || !readName(buffer).equalsIgnoreCase(name) || (buffer.getShort() & 0xFFFF) != type) {
+                return null;
+            }
+            buffer.getShort();
+
+            List<InetAddress> addresses = new ArrayList<>();
+            List<SrvRecord> srvRecords = new ArrayList<>();
+            long ttl = Long.MAX_VALUE;
+            for (int i = 0; i < answers; i++) {
+                readName(buffer);
+                int recordType = buffer.getShort() & 0xFFFF;
+                buffer.getShort();
+                long recordTtl = buffer.getInt() & 0xFFFFFFFFL;
+                int length = buffer.getShort() & 0xFFFF;
+                int end = buffer.position() + length;
+
+                // CNAMEs are followed by the resolver so their records are in the answer too
+                if (recordType == type || recordType == TYPE_CNAME) {
+                    ttl = Math.min(ttl, recordTtl);
+                }
+
+                if (recordType == type) {
+                    switch (type) {
+                        case TYPE_A:
+                        case TYPE_AAAA:
+                            byte[] address = new byte[length];
+                            buffer.get(address);
+                            addresses.add(InetAddress.getByAddress(address));
+                            break;
+                        case TYPE_SRV:
+                            int priority = buffer.getShort() & 0xFFFF;
+                            int weight = buffer.getShort() & 0xFFFF;
+                            int port = buffer.getShort() & 0xFFFF;
+                            srvRecords.add(new SrvRecord(priority, weight, port, readName(buffer)));
+                            break;
+                    }
+                }
+                buffer.position(end);
+            }
+
+            // Negative answers are cached for as long as the SOA in the authority section says (RFC 2308)
+            long negativeTtl = -1;
+            for (int i = 0; i < authorities; i++) {
+                readName(buffer);
+                int recordType = buffer.getShort() & 0xFFFF;
+                buffer.getShort();
+                long recordTtl = buffer.getInt() & 0xFFFFFFFFL;
+                int length = buffer.getShort() & 0xFFFF;
+                int end = buffer.position() + length;
+
+                if (recordType == TYPE_SOA) {
+                    readName(buffer);
+                    readName(buffer);
+                    buffer.position(buffer.position() + 16);
+                    negativeTtl = Math.min(recordTtl, buffer.getInt() & 0xFFFFFFFFL);
+                }
+                buffer.position(end);
+            }
+
+            boolean empty = addresses.isEmpty() && srvRecords.isEmpty();
+            return new DnsResponse(flags & 0xF, (flags & FLAG_TRUNCATED) != 0, addresses, srvRecords, empty ? negativeTtl : ttl);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | UnknownHostException e) {
+            throw new DnsException("Malformed response", e);
+        }
+    }
+
+    /**
+     * Write a domain name without compression
+     *
+     * @param buffer The buffer to write to
+     * @param name The name to write, with or without the trailing dot
+     */
+    public static void writeName(ByteBuffer buffer, String name) {
+        int start = 0;
+        while (start < name.length()) {
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = name.length();
+            }
+
+            byte[] label = name.substring(start, end).getBytes(StandardCharsets.US_ASCII);
+            if (label.length == 0 || label.length > 63) {
+                throw new IllegalArgumentException("Invalid domain name " + name);
+            }
+            buffer.put((byte) label.length);
+            buffer.put(label);
+            start = end + 1;
+        }
+        buffer.put((byte) 0);
+    }
+
+    /**
+     * Read a possibly compressed domain name
+     *
+     * @param buffer The buffer to read from, left after the name
+     * @return The name in lower case without the trailing dot
+     * @throws DnsException If the name is malformed
+     * @throws IndexOutOfBoundsException If the name runs past the end of the buffer
+     */
+    public static String readName(ByteBuffer buffer) throws DnsException {
+        StringBuilder name = new StringBuilder();
+        int position = buffer.position();
+        int resume = -1;
+        int pointers = 0;
+
+        while (true) {
+            int length = buffer.get(position) & 0xFF;
+            if (length == 0) {
+                position++;
+                break;
+            }
+
+            if ((length & 0xC0) == 0xC0) {
+                if (++pointers > MAX_POINTERS) {
+                    throw new DnsException("Too many compression pointers");
+                }
+                if (resume == -1) {
+                    resume = position + 2;
+                }
+                position = ((length & 0x3F) << 8) | (buffer.get(position + 1) & 0xFF);
+                continue;
+            }
+
+            if (name.length() > 0) {
+                name.append('.');
+            }
+            for (int i = 1; i <= length; i++) {
+                name.append((char) (buffer.get(position + i) & 0xFF));
+            }
+            position += length + 1;
+        }
+
+        buffer.position(resume != -1 ? resume : position);
+        return name.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.DnsSection;
+import org.geysermc.extension.connect.utils.ResolvedServer;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.geyser.api.network.RemoteServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Looks up and caches the SRV and address records of servers, honouring their TTLs.
+ * <p>
+ * Geyser looks up the SRV record of a Java server every time a player connects to it, so instead the record is
+ * looked up here ahead of time (while the player is still picking a server) and Geyser is handed the target directly.
+ * The target host is passed on rather than its address so the handshake still carries the same host name Geyser
+ * would have sent.
+ */
+public class DnsResolver {
+    private static final String SRV_PREFIX = "_minecraft._tcp.";
+    private static final int THREADS = 4;
+
+    // Entries still being used are looked up again in the background once this much of their TTL has passed
+    private static final double REFRESH_AHEAD = 0.8;
+
+    private final DnsSection config;
+    private final DnsClient client;
+    private final ExecutorService executor;
+
+    private final LinkedHashMap<Question, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Question, CompletableFuture<DnsResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final AtomicLong maxLookupNanos = new AtomicLong();
+
+    public DnsResolver(DnsSection config, List<InetSocketAddress> resolvers) {
+        this.config = config;
+        this.client = new DnsClient(resolvers, config.timeout());
+        this.executor = Executors.newFixedThreadPool(THREADS, Utils.threadFactory("DNS Resolver"));
+    }
+
+    /**
+     * Look up the SRV record of a server
+     *
+     * @param server The server to resolve
+     * @return The server to hand to Geyser, this is the original server if it doesn't need
+     * resolving or the lookup failed so Geyser can try itself
+     */
+    public CompletableFuture<RemoteServer> resolve(Server server) {
+        if (server.bedrock() || DnsClient.isIpLiteral(server.address())) {
+            return CompletableFuture.completedFuture(server);
+        }
+
+        return lookup(SRV_PREFIX + server.address(), DnsCodec.TYPE_SRV, false)
+            .handle((response, throwable) -> {
+                if (response == null) {
+                    return server;
+                }
+
+                InetSocketAddress target = srvTarget(response, server.address(), server.port());
+                return new ResolvedServer(server, target.getHostString(), target.getPort());
+            });
+    }
+
+    /**
+     * Get a server to hand to Geyser without waiting on the network.
+     * If it isn't cached the lookup carries on in the background so it is next time.
+     *
+     * @param server The server to resolve
+     * @return The resolved server or the original server if it isn't cached
+     */
+    public RemoteServer cached(Server server) {
+        return resolve(server).getNow(server);
+    }
+
+    /**
+     * Start looking up the servers that aren't cached, used when showing a list of servers
+     * so they are ready by the time one is picked
+     *
+     * @param servers The servers to look up
+     */
+    public void prefetch(List<Server> servers) {
+        for (Server server : servers) {
+            if (!server.bedrock() && !DnsClient.isIpLiteral(server.address())) {
+                lookup(SRV_PREFIX + server.address(), DnsCodec.TYPE_SRV, true);
+            }
+        }
+    }
+
+    /**
+     * Resolve the address to open a connection to
+     *
+     * @param host The host to resolve
+     * @param port The port to use if there is no SRV record
+     * @param srv If the SRV record of the host should be used
+     * @return The address, completed with null if the host has no addresses in DNS
+     */
+    public CompletableFuture<InetSocketAddress> resolveAddress(String host, int port, boolean srv) {
+        CompletableFuture<InetSocketAddress> target;
+        if (srv && !DnsClient.isIpLiteral(host)) {
+            target = lookup(SRV_PREFIX + host, DnsCodec.TYPE_SRV, false)
+                .handle((response, throwable) -> response == null ? InetSocketAddress.createUnresolved(host, port) : srvTarget(response, host, port));
+        } else {
+            target = CompletableFuture.completedFuture(InetSocketAddress.createUnresolved(host, port));
+        }
+
+        return target.thenCompose(unresolved -> {
+            String targetHost = unresolved.getHostString();
+            if (DnsClient.isIpLiteral(targetHost)) {
+                return CompletableFuture.completedFuture(new InetSocketAddress(targetHost, unresolved.getPort()));
+            }
+
+            return lookupAddress(targetHost, DnsCodec.TYPE_A)
+                .thenCompose(address -> address != null ? CompletableFuture.completedFuture(address) : lookupAddress(targetHost, DnsCodec.TYPE_AAAA))
+                .thenApply(address -> address != null ? new InetSocketAddress(address, unresolved.getPort()) : null);
+        });
+    }
+
+    private CompletableFuture<InetAddress> lookupAddress(String host, int type) {
+        return lookup(host, type, false).handle((response, throwable) ->
+            response != null && !response.addresses().isEmpty() ? response.addresses().get(0) : null);
+    }
+
+    private CompletableFuture<DnsResponse> lookup(String name, int type, boolean prefetch) {
+        if (name.endsWith(".")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        Question question = new Question(name.toLowerCase(Locale.ROOT), type);
+
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(question);
+        }
+
+        if (entry != null && now - entry.expiresAt() < 0) {
+            if (!prefetch) {
+                hits.increment();
+                if (entry.negative()) {
+                    negativeHits.increment();
+                }
+            }
+
+            if (now - entry.refreshAt() > 0) {
+                query(question, true);
+            }
+            return CompletableFuture.completedFuture(entry.response());
+        }
+
+        if (!prefetch) {
+            misses.increment();
+        }
+        return query(question, prefetch);
+    }
+
+    private CompletableFuture<DnsResponse> query(Question question, boolean prefetch) {
+        // Share lookups that are already running rather than sending the same query twice
+        CompletableFuture<DnsResponse> future = inFlight.get(question);
+        if (future != null) {
+            return future;
+        }
+
+        CompletableFuture<DnsResponse> created = new CompletableFuture<>();
+        future = inFlight.putIfAbsent(question, created);
+        if (future != null) {
+            return future;
+        }
+
+        if (prefetch) {
+            prefetches.increment();
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(fetch(question));
+                } catch (Throwable throwable) {
+                    created.completeExceptionally(throwable);
+                } finally {
+                    inFlight.remove(question, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(question, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private DnsResponse fetch(Question question) throws IOException {
+        long start = System.nanoTime();
+        try {
+            DnsResponse response = client.query(question.name(), question.type());
+            store(question, response);
+            return response;
+        } catch (IOException | IllegalArgumentException e) {
+            failures.increment();
+            GeyserConnect.instance().logger().debug("Failed to look up " + question.name() + ": " + e.getMessage());
+            throw e;
+        } finally {
+            long time = System.nanoTime() - start;
+            lookups.increment();
+            lookupNanos.add(time);
+            maxLookupNanos.accumulateAndGet(time, Math::max);
+        }
+    }
+
+    private void store(Question question, DnsResponse response) {
+        boolean negative = response.addresses().isEmpty() && response.srvRecords().isEmpty();
+
+        long ttl;
+        if (negative) {
+            ttl = response.ttl() < 0 ? config.negativeTtl() : Math.min(response.ttl(), config.negativeTtl());
+        } else {
+            ttl = Math.max(config.minTtl(), Math.min(response.ttl(), config.maxTtl()));
+        }
+        if (ttl <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttl);
+        Entry entry = new Entry(response, negative, now + ttlNanos, now + (long) (ttlNanos * REFRESH_AHEAD));
+
+        synchronized (entries) {
+            entries.put(question, entry);
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > config.maxEntries() && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Pick the SRV record to use as described in RFC 2782, the lowest priority
+     * with the weights deciding between records of the same priority
+     */
+    private static InetSocketAddress srvTarget(DnsResponse response, String host, int port) {
+        List<SrvRecord> records = response.srvRecords();
+        if (records.isEmpty()) {
+            return InetSocketAddress.createUnresolved(host, port);
+        }
+
+        int priority = Integer.MAX_VALUE;
+        int totalWeight = 0;
+        for (SrvRecord record : records) {
+            if (record.priority() < priority) {
+                priority = record.priority();
+                totalWeight = 0;
+            }
+            if (record.priority() == priority) {
+                totalWeight += record.weight();
+            }
+        }
+
+        int selected = totalWeight > 0 ? ThreadLocalRandom.current().nextInt(totalWeight) : 0;
+        for (SrvRecord record : records) {
+            if (record.priority() != priority) continue;
+
+            selected -= record.weight();
+            if (selected < 0 || totalWeight == 0) {
+                // A target of . means the service isn't available there
+                if (record.target().isEmpty()) {
+                    break;
+                }
+                return InetSocketAddress.createUnresolved(record.target(), record.port());
+            }
+        }
+
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long negativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long prefetches() {
+        return prefetches.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    public long averageLookupNanos() {
+        long lookups = this.lookups.sum();
+        return lookups == 0 ? 0 : lookupNanos.sum() / lookups;
+    }
+
+    public long maxLookupNanos() {
+        return maxLookupNanos.get();
+    }
+
+    private record Question(String name, int type) {
+    }
+
+    private record Entry(DnsResponse response, boolean negative, long expiresAt, long refreshAt) {
+    }
+}
@@ -0,0 +1,554 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.DnsServerSection;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small authoritative DNS server that points the featured server domains at GeyserConnect, so consoles that can't
+ * add servers end up here. Everything else is forwarded to an upstream resolver or refused.
+ * <p>
+ * Queries for the featured domains are answered on a single thread without allocating, the names are matched
+ * straight from the packet and the answers are built once from the config.
+ * <p>
+ * Forwarded queries go out with a random id on one of a small pool of sockets bound to random ports, so a spoofed
+ * answer has to guess both. That is far fewer ports than a resolver using a new port per query, so the upstream
+ * should be a resolver on a network spoofed packets can't reach, such as the local machine or LAN.
+ */
+public class DnsResponder {
+    static final int RESPOND = 0;
+    static final int FORWARD = 1;
+    static final int DROP = 2;
+
+    private static final int TYPE_ANY = 255;
+    private static final int CLASS_ANY = 255;
+    private static final int MAX_LABELS = 128;
+    private static final int RECEIVE_BUFFER_SIZE = 1 << 20;
+
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int FLAG_AUTHORITATIVE = 0x0400;
+    private static final int FLAG_RECURSION_DESIRED = 0x0100;
+    private static final int FLAG_RECURSION_AVAILABLE = 0x0080;
+    private static final int RCODE_FORMAT_ERROR = 1;
+    private static final int RCODE_NOT_IMPLEMENTED = 4;
+
+    private static final long FORWARD_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int FORWARD_ID_ATTEMPTS = 16;
+    private static final int UPSTREAM_SOCKETS = 16;
+    private static final int UPSTREAM_BIND_ATTEMPTS = 16;
+    private static final int MIN_UPSTREAM_PORT = 1024;
+
+    private final DatagramChannel channel;
+    private final DatagramChannel[] upstreams;
+    private final Selector upstreamSelector;
+    private final NameTable names;
+
+    private final byte[] aRecords;
+    private final int aCount;
+    private final byte[] aaaaRecords;
+    private final int aaaaCount;
+
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+    private final ByteBuffer upstreamBuffer = ByteBuffer.allocateDirect(DnsCodec.MAX_UDP_LENGTH);
+    private final int[] labelStarts = new int[MAX_LABELS];
+
+    // Queries waiting on the upstream resolver, indexed by the id they were forwarded with
+    private final AtomicReferenceArray<Forward> forwards = new AtomicReferenceArray<>(0x10000);
+    private volatile boolean running = true;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder nameErrors = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Bind the server, it doesn't answer anything until {@link #start()} is called
+     *
+     * @param config The DNS server config
+     * @throws IOException If the server couldn't be bound or the config is invalid
+     */
+    public DnsResponder(DnsServerSection config) throws IOException {
+        this(config, new InetSocketAddress(config.address(), config.port()));
+    }
+
+    DnsResponder(DnsServerSection config, InetSocketAddress bindAddress) throws IOException {
+        List<String> domains = config.domains();
+        this.names = new NameTable(domains);
+
+        ByteBuffer a = ByteBuffer.allocate(DnsCodec.MAX_UDP_LENGTH);
+        ByteBuffer aaaa = ByteBuffer.allocate(DnsCodec.MAX_UDP_LENGTH);
+        int aCount = 0;
+        int aaaaCount = 0;
+        for (String address : config.addresses()) {
+            if (!DnsClient.isIpLiteral(address)) {
+                throw new DnsException("DNS server address " + address + " must be an IP address");
+            }
+
+            InetAddress inetAddress = InetAddress.getByName(address);
+            ByteBuffer records = inetAddress instanceof Inet4Address ? a : aaaa;
+            byte[] bytes = inetAddress.getAddress();
+
+            // Point back at the name in the question rather than repeating it
+            records.putShort((short) (0xC000 | DnsCodec.HEADER_LENGTH));
+            records.putShort((short) (bytes.length == 4 ? DnsCodec.TYPE_A : DnsCodec.TYPE_AAAA));
+            records.putShort((short) DnsCodec.CLASS_IN);
+            records.putInt(config.ttl());
+            records.putShort((short) bytes.length);
+            records.put(bytes);
+
+            if (bytes.length == 4) {
+                aCount++;
+            } else {
+                aaaaCount++;
+            }
+        }
+
+        // Make sure the longest possible question still fits alongside the answers
+        if (DnsCodec.HEADER_LENGTH + 259 + a.position() + aaaa.position() > DnsCodec.MAX_UDP_LENGTH) {
+            throw new DnsException("Too many DNS server addresses to fit in a response");
+        }
+
+        this.aRecords = new byte[a.position()];
+        a.flip().get(aRecords);
+        this.aCount = aCount;
+        this.aaaaRecords = new byte[aaaa.position()];
+        aaaa.flip().get(aaaaRecords);
+        this.aaaaCount = aaaaCount;
+
+        InetSocketAddress upstreamAddress = config.upstream().isEmpty() ? null : DnsClient.parseResolver(config.upstream());
+
+        this.channel = DatagramChannel.open();
+        try {
+            this.channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+            this.channel.bind(bindAddress);
+
+            if (upstreamAddress == null) {
+                this.upstreams = null;
+                this.upstreamSelector = null;
+            } else {
+                this.upstreams = new DatagramChannel[UPSTREAM_SOCKETS];
+                this.upstreamSelector = Selector.open();
+                for (int i = 0; i < upstreams.length; i++) {
+                    upstreams[i] = openUpstream(upstreamAddress);
+                    upstreams[i].register(upstreamSelector, SelectionKey.OP_READ, i);
+                }
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a socket to the upstream resolver on a random port, rather than leaving it to the OS
+     * as some hand out ephemeral ports in order
+     */
+    private static DatagramChannel openUpstream(InetSocketAddress upstreamAddress) throws IOException {
+        DatagramChannel upstream = DatagramChannel.open();
+        try {
+            InetAddress any = upstreamAddress.getAddress() instanceof Inet4Address ? InetAddress.getByName("0.0.0.0") : InetAddress.getByName("::");
+            boolean bound = false;
+            for (int i = 0; i < UPSTREAM_BIND_ATTEMPTS && !bound; i++) {
+                try {
+                    upstream.bind(new InetSocketAddress(any, ThreadLocalRandom.current().nextInt(MIN_UPSTREAM_PORT, 0x10000)));
+                    bound = true;
+                } catch (IOException ignored) {
+                    // Most likely in use, try another
+                }
+            }
+            if (!bound) {
+                upstream.bind(new InetSocketAddress(any, 0));
+            }
+
+            upstream.connect(upstreamAddress);
+            upstream.configureBlocking(false);
+            return upstream;
+        } catch (IOException e) {
+            upstream.close();
+            throw e;
+        }
+    }
+
+    public void start() {
+        Utils.threadFactory("DNS Server").newThread(this::receive).start();
+        if (upstreams != null) {
+            Utils.threadFactory("DNS Forwarder").newThread(this::receiveUpstream).start();
+        }
+    }
+
+    public void close() {
+        running = false;
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+            if (upstreamSelector != null) {
+                upstreamSelector.close();
+            }
+            if (upstreams != null) {
+                for (DatagramChannel upstream : upstreams) {
+                    if (upstream != null) {
+                        upstream.close();
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * @return The address the server is listening on
+     */
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    private void receive() {
+        while (running) {
+            try {
+                receiveBuffer.clear();
+                SocketAddress client = channel.receive(receiveBuffer);
+                receiveBuffer.flip();
+                queries.increment();
+
+                switch (handle(receiveBuffer, sendBuffer)) {
+                    case RESPOND:
+                        channel.send(sendBuffer, client);
+                        break;
+                    case FORWARD:
+                        forward(receiveBuffer, client);
+                        break;
+                    default:
+                        dropped.increment();
+                        break;
+                }
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException e) {
+                GeyserConnect.instance().logger().debug("Failed to answer DNS query: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answer a query
+     *
+     * @param query The query, the position and limit are left unchanged
+     * @param response The buffer to write the answer to, ready to send if the query is answered
+     * @return {@link #RESPOND} if the response should be sent, {@link #FORWARD} if the query should be forwarded
+     * or {@link #DROP} if the query should be ignored
+     */
+    int handle(ByteBuffer query, ByteBuffer response) {
+        int limit = query.limit();
+        if (limit < DnsCodec.HEADER_LENGTH) {
+            return DROP;
+        }
+
+        int flags = query.getShort(2) & 0xFFFF;
+        if ((flags & FLAG_RESPONSE) != 0) {
+            return DROP;
+        }
+        if ((flags & 0x7800) != 0) {
+            return error(query, response, flags, DnsCodec.HEADER_LENGTH, RCODE_NOT_IMPLEMENTED);
+        }
+        if ((query.getShort(4) & 0xFFFF) != 1) {
+            return error(query, response, flags, DnsCodec.HEADER_LENGTH, RCODE_FORMAT_ERROR);
+        }
+
+        // Find where each label of the name starts so parent domains can be checked too
+        int position = DnsCodec.HEADER_LENGTH;
+        int labels = 0;
+        while (true) {
+            if (position >= limit) {
+                return DROP;
+            }
+
+            int length = query.get(position) & 0xFF;
+            if (length == 0) {
+                position++;
+                break;
+            }
+            if ((length & 0xC0) != 0 || labels == MAX_LABELS || position + length + 1 - DnsCodec.HEADER_LENGTH > 255) {
+                return error(query, response, flags, DnsCodec.HEADER_LENGTH, RCODE_FORMAT_ERROR);
+            }
+
+            labelStarts[labels++] = position;
+            position += length + 1;
+        }
+
+        if (position + 4 > limit) {
+            return DROP;
+        }
+        int type = query.getShort(position) & 0xFFFF;
+        int questionClass = query.getShort(position + 2) & 0xFFFF;
+        int questionEnd = position + 4;
+
+        if (questionClass == DnsCodec.CLASS_IN || questionClass == CLASS_ANY) {
+            for (int i = 0; i < labels; i++) {
+                if (!names.contains(query, labelStarts[i], position)) continue;
+
+                // Only the domains themselves exist, like the bind9 zones this replaces
+                if (i > 0) {
+                    nameErrors.increment();
+                    return respond(query, response, flags | FLAG_AUTHORITATIVE, questionEnd, DnsCodec.RCODE_NAME_ERROR);
+                }
+
+                answered.increment();
+                int answers = 0;
+                respond(query, response, flags | FLAG_AUTHORITATIVE, questionEnd, DnsCodec.RCODE_NO_ERROR);
+                if (type == DnsCodec.TYPE_A || type == TYPE_ANY) {
+                    response.put(aRecords);
+                    answers += aCount;
+                }
+                if (type == DnsCodec.TYPE_AAAA || type == TYPE_ANY) {
+                    response.put(aaaaRecords);
+                    answers += aaaaCount;
+                }
+                response.putShort(6, (short) answers);
+                response.flip();
+                return RESPOND;
+            }
+        }
+
+        if (upstreams != null) {
+            return FORWARD;
+        }
+
+        refused.increment();
+        return respond(query, response, flags, questionEnd, DnsCodec.RCODE_REFUSED);
+    }
+
+    private int error(ByteBuffer query, ByteBuffer response, int flags, int questionEnd, int rcode) {
+        respond(query, response, flags, questionEnd, rcode);
+        // There is no valid question to send back
+        response.putShort(4, (short) 0);
+        response.limit(DnsCodec.HEADER_LENGTH);
+        return RESPOND;
+    }
+
+    /**
+     * Write the header and question of a response, if there are no answers it is flipped ready to send
+     * otherwise it is left for the answers to be written
+     */
+    private int respond(ByteBuffer query, ByteBuffer response, int flags, int questionEnd, int rcode) {
+        response.clear();
+        response.putShort(query.getShort(0));
+        response.putShort((short) (FLAG_RESPONSE | (flags & (FLAG_RECURSION_DESIRED | FLAG_AUTHORITATIVE))
+            | (upstreams != null ? FLAG_RECURSION_AVAILABLE : 0) | rcode));
+        response.putShort((short) 1);
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.put(DnsCodec.HEADER_LENGTH, query, DnsCodec.HEADER_LENGTH, questionEnd - DnsCodec.HEADER_LENGTH);
+        response.position(questionEnd);
+
+        if (rcode != DnsCodec.RCODE_NO_ERROR) {
+            response.flip();
+        }
+        return RESPOND;
+    }
+
+    private void forward(ByteBuffer query, SocketAddress client) throws IOException {
+        long now = System.nanoTime();
+
+        // Pick a random free id and socket so a spoofed response has to guess both to be matched back to the client
+        int socket = ThreadLocalRandom.current().nextInt(upstreams.length);
+        int id = -1;
+        for (int i = 0; i < FORWARD_ID_ATTEMPTS; i++) {
+            int candidate = ThreadLocalRandom.current().nextInt(0x10000);
+            Forward existing = forwards.get(candidate);
+            if ((existing == null || now - existing.sentAt() > FORWARD_TIMEOUT_NANOS)
+                && forwards.compareAndSet(candidate, existing, new Forward(query.getShort(0), client, socket, now))) {
+                id = candidate;
+                break;
+            }
+        }
+
+        if (id == -1) {
+            dropped.increment();
+            return;
+        }
+
+        forwarded.increment();
+        query.putShort(0, (short) id);
+        upstreams[socket].write(query);
+    }
+
+    private void receiveUpstream() {
+        while (running) {
+            try {
+                upstreamSelector.select();
+                for (SelectionKey key : upstreamSelector.selectedKeys()) {
+                    receiveUpstream((DatagramChannel) key.channel(), (Integer) key.attachment());
+                }
+                upstreamSelector.selectedKeys().clear();
+            } catch (AsynchronousCloseException | ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                GeyserConnect.instance().logger().debug("Failed to forward DNS response: " + e.getMessage());
+            }
+        }
+    }
+
+    private void receiveUpstream(DatagramChannel upstream, int socket) throws IOException {
+        while (true) {
+            upstreamBuffer.clear();
+            if (upstream.read(upstreamBuffer) <= 0) {
+                return;
+            }
+            upstreamBuffer.flip();
+            if (upstreamBuffer.remaining() < DnsCodec.HEADER_LENGTH) continue;
+
+            // Only take the query out once the response has arrived on the socket it was sent from
+            int id = upstreamBuffer.getShort(0) & 0xFFFF;
+            Forward forward = forwards.get(id);
+            if (forward == null || forward.socket() != socket || !forwards.compareAndSet(id, forward, null)) continue;
+            if (System.nanoTime() - forward.sentAt() > FORWARD_TIMEOUT_NANOS) continue;
+
+            upstreamBuffer.putShort(0, forward.id());
+            channel.send(upstreamBuffer, forward.client());
+        }
+    }
+
+    public long queries() {
+        return queries.sum();
+    }
+
+    public long answered() {
+        return answered.sum();
+    }
+
+    public long nameErrors() {
+        return nameErrors.sum();
+    }
+
+    public long forwarded() {
+        return forwarded.sum();
+    }
+
+    public long refused() {
+        return refused.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private record Forward(short id, SocketAddress client, int socket, long sentAt) {
+    }
+
+    /**
+     * An open addressing set of domain names in wire format, so names can be looked up
+     * straight from a packet without decoding them into strings
+     */
+    private static final class NameTable {
+        private final byte[][] names;
+        private final int mask;
+
+        private NameTable(List<String> domains) {
+            int capacity = Integer.highestOneBit(Math.max(domains.size(), 1) * 4);
+            this.names = new byte[capacity][];
+            this.mask = capacity - 1;
+
+            ByteBuffer buffer = ByteBuffer.allocate(256);
+            for (String domain : domains) {
+                buffer.clear();
+                DnsCodec.writeName(buffer, domain.toLowerCase(Locale.ROOT));
+                byte[] name = new byte[buffer.position()];
+                buffer.flip().get(name);
+
+                int slot = hash(ByteBuffer.wrap(name), 0, name.length) & mask;
+                while (names[slot] != null && !matches(names[slot], ByteBuffer.wrap(name), 0, name.length)) {
+                    slot = (slot + 1) & mask;
+                }
+                names[slot] = name;
+            }
+        }
+
+        private boolean contains(ByteBuffer buffer, int start, int end) {
+            int slot = hash(buffer, start, end) & mask;
+            byte[] name;
+            while ((name = names[slot]) != null) {
+                if (matches(name, buffer, start, end)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private static boolean matches(byte[] name, ByteBuffer buffer, int start, int end) {
+            if (name.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != lowerCase(buffer.get(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Label lengths are at most 63 so never look like upper case letters
+        private static int hash(ByteBuffer buffer, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + lowerCase(buffer.get(i));
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static byte lowerCase(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+        }
+    }
+}
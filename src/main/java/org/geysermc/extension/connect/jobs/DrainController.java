@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.jobs;
+
+import org.cloudburstmc.protocol.bedrock.packet.TransferPacket;
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.PacketHandler;
+import org.geysermc.extension.connect.config.DrainSection;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.geyser.api.connection.GeyserConnection;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empties this server ahead of a restart. New players are refused, queued saves are written straight away and
+ * players in the menus are sent to a peer server in waves, while players already on a server are left alone.
+ * Storage is closed once everyone has gone or the deadline passes, any saves after that are rejected.
+ */
+public class DrainController {
+    private static final long CHECK_INTERVAL_SECONDS = 1;
+
+    private final DrainSection config;
+    private final JobManager jobManager;
+    private final TimingWheel timingWheel;
+    private final Runnable onDrained;
+    private final TransferPacket peerTransfer;
+
+    private volatile boolean draining;
+    private volatile boolean drained;
+    private long deadline;
+    private SessionJob job;
+
+    /**
+     * @param config The drain config
+     * @param jobManager The job manager to send players to the peer with
+     * @param timingWheel The timing wheel to check on the drain with
+     * @param onDrained Ran once when the drain is done, to close storage
+     */
+    public DrainController(DrainSection config, JobManager jobManager, TimingWheel timingWheel, Runnable onDrained) {
+        this.config = config;
+        this.jobManager = jobManager;
+        this.timingWheel = timingWheel;
+        this.onDrained = onDrained;
+        this.peerTransfer = peerTransfer(config.peer());
+    }
+
+    /**
+     * Start draining
+     *
+     * @return If the drain was started, false if it already had been
+     */
+    public synchronized boolean start() {
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.deadline());
+
+        GeyserConnect.instance().logger().info("Draining, new players are no longer accepted and players in the menus are being sent to "
+            + (peerTransfer != null ? config.peer() : "the address they joined with"));
+
+        // Write anything queued now rather than waiting for shutdown
+        GeyserConnect.instance().storageManager().writeQueue().flush();
+
+        List<GeyserSession> lobby = new ArrayList<>();
+        for (GeyserConnection connection : GeyserConnect.instance().geyserApi().onlineConnections()) {
+            GeyserSession session = (GeyserSession) connection;
+            if (PacketHandler.inMenus(session)) {
+                lobby.add(session);
+            }
+        }
+        job = jobManager.submit("drain", lobby, this::redirect);
+
+        check();
+        return true;
+    }
+
+    /**
+     * Send a player in the menus to the peer server, or back to the address they joined with if there is no peer
+     *
+     * @param session The player to send
+     */
+    public void redirect(GeyserSession session) {
+        // They may have picked a server since the drain started
+        if (!PacketHandler.inMenus(session)) return;
+
+        if (peerTransfer != null) {
+            session.sendUpstreamPacket(peerTransfer);
+        } else {
+            Utils.reconnect(session);
+        }
+    }
+
+    private void check() {
+        int online = GeyserConnect.instance().geyserApi().onlineConnections().size();
+        boolean timedOut = System.nanoTime() - deadline >= 0;
+        if (online > 0 && !timedOut) {
+            timingWheel.schedule(this::check, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+
+        drained = true;
+        if (timedOut) {
+            GeyserConnect.instance().logger().warning("Drain deadline passed with " + online + " players still online, closing storage anyway");
+        }
+        onDrained.run();
+        GeyserConnect.instance().logger().info("Drain complete, " + job.completed() + " players sent from the menus. It is now safe to stop GeyserConnect");
+    }
+
+    private static TransferPacket peerTransfer(String peer) {
+        if (peer.isEmpty()) {
+            return null;
+        }
+
+        String[] parts = peer.split(":");
+        int port = 19132;
+        if (parts.length > 1) {
+            try {
+                port = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        TransferPacket transferPacket = new TransferPacket();
+        transferPacket.setAddress(parts[0]);
+        transferPacket.setPort(port);
+        return transferPacket;
+    }
+
+    public boolean draining() {
+        return draining;
+    }
+
+    /**
+     * @return If the drain has finished and storage is closed
+     */
+    public boolean drained() {
+        return drained;
+    }
+
+    /**
+     * @return The job sending players in the menus to the peer, or null if the drain hasn't started
+     */
+    public SessionJob job() {
+        return job;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.jobs;
+
+import org.geysermc.extension.connect.config.JobsSection;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the jobs running against the online players
+ */
+public class JobManager {
+    private final JobsSection config;
+    private final TimingWheel timingWheel;
+
+    private final Map<Integer, SessionJob> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public JobManager(JobsSection config, TimingWheel timingWheel) {
+        this.config = config;
+        this.timingWheel = timingWheel;
+    }
+
+    /**
+     * Start a job using the configured wave size and interval
+     *
+     * @param description What the job is doing, shown when listing jobs and in the logs
+     * @param sessions The sessions to run the job for
+     * @param action The action to run for each session, on the event loop of the session
+     * @return The started job
+     */
+    public SessionJob submit(String description, List<GeyserSession> sessions, Consumer<GeyserSession> action) {
+        return submit(description, sessions, action, config.waveSize(), config.waveInterval());
+    }
+
+    /**
+     * Start a job
+     *
+     * @param description What the job is doing, shown when listing jobs and in the logs
+     * @param sessions The sessions to run the job for
+     * @param action The action to run for each session, on the event loop of the session
+     * @param waveSize How many sessions to run the action for at once
+     * @param waveInterval How long in milliseconds to wait between waves
+     * @return The started job
+     */
+    public SessionJob submit(String description, List<GeyserSession> sessions, Consumer<GeyserSession> action, int waveSize, long waveInterval) {
+        int id = nextId.getAndIncrement();
+        SessionJob job = new SessionJob(id, description, sessions, action, waveSize, waveInterval, timingWheel, () -> jobs.remove(id));
+        jobs.put(id, job);
+        job.start();
+        return job;
+    }
+
+    /**
+     * @return The jobs that are still running, oldest first
+     */
+    public List<SessionJob> jobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Cancel a running job
+     *
+     * @param id The id of the job
+     * @return If there was a running job with the id
+     */
+    public boolean cancel(int id) {
+        SessionJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+
+        job.cancel();
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.jobs;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs an action for a list of sessions a wave at a time, so a whole server of players isn't hit at the same instant.
+ * Each action runs on the event loop of its session and sessions that have gone by the time their wave comes are skipped.
+ */
+public class SessionJob {
+    private final int id;
+    private final String description;
+    private final List<GeyserSession> sessions;
+    private final Consumer<GeyserSession> action;
+    private final int waveSize;
+    private final long waveInterval;
+    private final TimingWheel timingWheel;
+    private final Runnable onFinish;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger remaining;
+
+    // Only touched by the timing wheel thread
+    private int dispatched;
+
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private final long startedAt = System.nanoTime();
+
+    SessionJob(int id, String description, List<GeyserSession> sessions, Consumer<GeyserSession> action, int waveSize, long waveInterval, TimingWheel timingWheel, Runnable onFinish) {
+        this.id = id;
+        this.description = description;
+        this.sessions = List.copyOf(sessions);
+        this.action = action;
+        this.waveSize = waveSize;
+        this.waveInterval = waveInterval;
+        this.timingWheel = timingWheel;
+        this.onFinish = onFinish;
+        this.remaining = new AtomicInteger(this.sessions.size());
+    }
+
+    void start() {
+        GeyserConnect.instance().logger().info("Started job #" + id + " (" + description + ") for " + sessions.size() + " players in "
+            + waves() + " waves of " + waveSize + " every " + waveInterval + "ms");
+
+        if (sessions.isEmpty()) {
+            finish();
+            return;
+        }
+        timingWheel.schedule(this::runWave, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private void runWave() {
+        if (cancelled) return;
+
+        int end = Math.min(dispatched + waveSize, sessions.size());
+        for (; dispatched < end; dispatched++) {
+            GeyserSession session = sessions.get(dispatched);
+            if (session.isClosed()) {
+                skipped.incrementAndGet();
+                done();
+                continue;
+            }
+
+            session.ensureInEventLoop(() -> run(session));
+        }
+
+        if (dispatched < sessions.size()) {
+            timingWheel.schedule(this::runWave, waveInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run(GeyserSession session) {
+        if (session.isClosed()) {
+            skipped.incrementAndGet();
+        } else {
+            try {
+                action.accept(session);
+                completed.incrementAndGet();
+            } catch (Throwable throwable) {
+                failed.incrementAndGet();
+                GeyserConnect.instance().logger().debug("Job #" + id + " failed for " + Utils.displayName(session) + ": " + throwable.getMessage());
+            }
+        }
+        done();
+    }
+
+    private void done() {
+        if (remaining.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private synchronized void finish() {
+        if (finished) return;
+        finished = true;
+
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+        GeyserConnect.instance().logger().info((cancelled ? "Cancelled" : "Finished") + " job #" + id + " (" + description + ") after " + seconds + "s: "
+            + completed.get() + " done, " + skipped.get() + " skipped as disconnected, " + failed.get() + " failed"
+            + (cancelled ? ", " + remaining.get() + " not reached" : ""));
+        onFinish.run();
+    }
+
+    /**
+     * Stop the job before its next wave, actions already handed to event loops still run
+     */
+    public void cancel() {
+        cancelled = true;
+        finish();
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public int total() {
+        return sessions.size();
+    }
+
+    public int completed() {
+        return completed.get();
+    }
+
+    public int skipped() {
+        return skipped.get();
+    }
+
+    public int failed() {
+        return failed.get();
+    }
+
+    public int waves() {
+        return (sessions.size() + waveSize - 1) / waveSize;
+    }
+
+    /**
+     * @return How long in seconds the job has been running
+     */
+    public long elapsed() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+    }
+
+    public boolean finished() {
+        return finished;
+    }
+}
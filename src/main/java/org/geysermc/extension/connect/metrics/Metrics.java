@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.metrics;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.PacketHandler;
+import org.geysermc.extension.connect.admission.AdmissionController;
+import org.geysermc.extension.connect.cluster.ClusterManager;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.dns.DnsResponder;
+import org.geysermc.extension.connect.status.EndpointProber;
+import org.geysermc.extension.connect.status.StatusService;
+import org.geysermc.extension.connect.storage.ServerListCache;
+import org.geysermc.extension.connect.storage.WriteBehindQueue;
+import org.geysermc.extension.connect.utils.JoinTimer;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.extension.connect.utils.ServerManager;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.geyser.api.connection.GeyserConnection;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded on the hot paths, kept as constants so recording never has to look anything up.
+ * Everything else is read from the stats the components already keep when the metrics are scraped.
+ */
+public final class Metrics {
+    private static final double[] STORAGE_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5};
+    private static final double[] FORM_BUCKETS = {0.5, 1, 2, 5, 10, 20, 30, 60, 120};
+    private static final double[] JOIN_BUCKETS = {0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    public static final LongAdder FAST_PATH_JOINS = REGISTRY.counter("geyserconnect_joins_total", "Players that have joined", "path", "fast");
+    public static final LongAdder LOBBY_JOINS = REGISTRY.counter("geyserconnect_joins_total", "Players that have joined", "path", "lobby");
+
+    private static final LongAdder[] TRANSFERS = new LongAdder[ServerCategory.values().length];
+
+    public static final LongAdder VHOST_ROUTES = REGISTRY.counter("geyserconnect_vhost_routes_total", "Players sent to a server by their virtual host", "result", "routed");
+    public static final LongAdder VHOST_INVALID = REGISTRY.counter("geyserconnect_vhost_routes_total", "Players sent to a server by their virtual host", "result", "invalid");
+
+    public static final LongAdder FORMS_SENT = REGISTRY.counter("geyserconnect_forms_sent_total", "Forms sent to players");
+    public static final Histogram FORM_RESPONSE_TIME = REGISTRY.histogram("geyserconnect_form_response_seconds", "Time players take to answer a menu form", FORM_BUCKETS);
+
+    private static final Histogram[] JOIN_PHASES = new Histogram[JoinTimer.Stage.values().length];
+
+    static {
+        for (ServerCategory category : ServerCategory.values()) {
+            TRANSFERS[category.ordinal()] = REGISTRY.counter("geyserconnect_transfers_total", "Players sent to a server from the menus", "category", category.name().toLowerCase());
+        }
+
+        for (JoinTimer.Stage stage : JoinTimer.Stage.values()) {
+            if (stage.phase() != null) {
+                JOIN_PHASES[stage.ordinal()] = REGISTRY.histogram("geyserconnect_join_phase_seconds", "Time spent in each phase of joining", JOIN_BUCKETS, "phase", stage.phase());
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * @param category The category of the server
+     * @return The counter of players sent to servers in the category
+     */
+    public static LongAdder transfers(ServerCategory category) {
+        return TRANSFERS[category.ordinal()];
+    }
+
+    /**
+     * @param stage The stage the phase ends at
+     * @return The histogram of the time players spend in the phase
+     */
+    public static Histogram joinPhase(JoinTimer.Stage stage) {
+        return JOIN_PHASES[stage.ordinal()];
+    }
+
+    /**
+     * Register the metrics for a storage type, there is only ever one storage manager so this is called once
+     *
+     * @param type The storage type, such as sqlite
+     * @return The metrics to record storage to
+     */
+    public static StorageMetrics storage(String type) {
+        return new StorageMetrics(
+            REGISTRY.histogram("geyserconnect_storage_load_seconds", "Time taken to load a player's servers from storage", STORAGE_BUCKETS, "type", type),
+            REGISTRY.histogram("geyserconnect_storage_save_seconds", "Time taken to write a batch of queued server lists to storage", STORAGE_BUCKETS, "type", type),
+            REGISTRY.counter("geyserconnect_storage_errors_total", "Storage operations that failed", "type", type, "operation", "load"),
+            REGISTRY.counter("geyserconnect_storage_errors_total", "Storage operations that failed", "type", type, "operation", "save"));
+    }
+
+    /**
+     * Register gauges and counters that read the stats kept by each component, called once everything is set up
+     *
+     * @param geyserConnect The extension
+     */
+    public static void bind(GeyserConnect geyserConnect) {
+        REGISTRY.gauge("geyserconnect_sessions", "Players connected", () -> geyserConnect.geyserApi().onlineConnections().size(), "state", "online");
+        REGISTRY.gauge("geyserconnect_sessions", "Players connected", () -> menuSessions(geyserConnect), "state", "menu");
+        REGISTRY.gauge("geyserconnect_server_lists_loaded", "Players with their custom servers loaded", ServerManager::loadedPlayers);
+
+        TimingWheel timingWheel = geyserConnect.timingWheel();
+        REGISTRY.gauge("geyserconnect_scheduler_tasks_pending", "Tasks waiting on the timing wheel", timingWheel::pending);
+        REGISTRY.counter("geyserconnect_scheduler_tasks_total", "Tasks ran by the timing wheel", timingWheel::executed);
+        REGISTRY.gauge("geyserconnect_jobs_running", "Running messageall, transferall and drain jobs", () -> geyserConnect.jobManager().jobs().size());
+
+        REGISTRY.counter("geyserconnect_form_image_refreshes_total", "Form image refreshes sent", PacketHandler::formImageRefreshesScheduled, "result", "sent");
+        REGISTRY.counter("geyserconnect_form_image_refreshes_total", "Form image refreshes sent", PacketHandler::formImageRefreshesCoalesced, "result", "coalesced");
+
+        WriteBehindQueue writeQueue = geyserConnect.storageManager().writeQueue();
+        REGISTRY.gauge("geyserconnect_storage_queue_depth", "Server lists waiting to be written", writeQueue::depth);
+        REGISTRY.counter("geyserconnect_storage_queued_total", "Server lists queued to be written", writeQueue::queued);
+        REGISTRY.counter("geyserconnect_storage_coalesced_total", "Queued server lists replaced before being written", writeQueue::coalesced);
+        REGISTRY.counter("geyserconnect_storage_overflows_total", "Early flushes of the save queue as it was full", writeQueue::overflows);
+        REGISTRY.counter("geyserconnect_storage_retries_total", "Server lists queued again after failing to be written", writeQueue::retries);
+        REGISTRY.counter("geyserconnect_storage_rejected_total", "Server lists not saved as storage was already closed", writeQueue::rejected);
+
+        ServerListCache cache = geyserConnect.storageManager().cache();
+        REGISTRY.gauge("geyserconnect_server_list_cache_entries", "Server lists cached in memory", cache::size);
+        REGISTRY.counter("geyserconnect_server_list_cache_hits_total", "Server lists loaded from the cache", cache::hits);
+        REGISTRY.counter("geyserconnect_server_list_cache_misses_total", "Server lists not in the cache", cache::misses);
+
+        AdmissionController admission = geyserConnect.admissionController();
+        if (admission != null) {
+            REGISTRY.gauge("geyserconnect_admission_joining", "Players holding a join slot", admission::joining);
+            REGISTRY.gauge("geyserconnect_admission_queue_size", "Players waiting for a join slot", admission::queueSize);
+            REGISTRY.counter("geyserconnect_admission_total", "Joins by how they were handled", admission::admitted, "result", "admitted");
+            REGISTRY.counter("geyserconnect_admission_total", "Joins by how they were handled", admission::queued, "result", "queued");
+            REGISTRY.counter("geyserconnect_admission_total", "Joins by how they were handled", admission::rateLimited, "result", "rate_limited");
+            REGISTRY.counter("geyserconnect_admission_total", "Joins by how they were handled", admission::rejected, "result", "queue_full");
+            REGISTRY.counter("geyserconnect_admission_total", "Joins by how they were handled", admission::timedOut, "result", "queue_timeout");
+        }
+
+        DnsResolver dnsResolver = geyserConnect.dnsResolver();
+        if (dnsResolver != null) {
+            REGISTRY.gauge("geyserconnect_dns_cache_entries", "DNS answers cached", dnsResolver::size);
+            REGISTRY.counter("geyserconnect_dns_cache_total", "DNS cache lookups", dnsResolver::hits, "result", "hit");
+            REGISTRY.counter("geyserconnect_dns_cache_total", "DNS cache lookups", dnsResolver::misses, "result", "miss");
+            REGISTRY.counter("geyserconnect_dns_lookups_total", "DNS queries sent", dnsResolver::lookups);
+            REGISTRY.counter("geyserconnect_dns_lookup_failures_total", "DNS queries that failed", dnsResolver::failures);
+        }
+
+        DnsResponder dnsResponder = geyserConnect.dnsResponder();
+        if (dnsResponder != null) {
+            REGISTRY.counter("geyserconnect_dns_server_queries_total", "Queries received by the DNS server", dnsResponder::answered, "result", "answered");
+            REGISTRY.counter("geyserconnect_dns_server_queries_total", "Queries received by the DNS server", dnsResponder::nameErrors, "result", "unknown_name");
+            REGISTRY.counter("geyserconnect_dns_server_queries_total", "Queries received by the DNS server", dnsResponder::forwarded, "result", "forwarded");
+            REGISTRY.counter("geyserconnect_dns_server_queries_total", "Queries received by the DNS server", dnsResponder::refused, "result", "refused");
+            REGISTRY.counter("geyserconnect_dns_server_queries_total", "Queries received by the DNS server", dnsResponder::dropped, "result", "dropped");
+        }
+
+        StatusService statusService = geyserConnect.statusService();
+        if (statusService != null) {
+            REGISTRY.counter("geyserconnect_status_pings_total", "Server status pings", statusService::probes);
+            REGISTRY.counter("geyserconnect_status_ping_failures_total", "Server status pings that failed", statusService::failures);
+        }
+
+        EndpointProber endpointProber = geyserConnect.endpointProber();
+        if (endpointProber != null) {
+            REGISTRY.gauge("geyserconnect_endpoints_healthy", "Server endpoints that are answering", endpointProber::healthy);
+            REGISTRY.gauge("geyserconnect_endpoints", "Server endpoints being probed", endpointProber::tracked);
+        }
+
+        ClusterManager clusterManager = geyserConnect.clusterManager();
+        if (clusterManager != null) {
+            REGISTRY.gauge("geyserconnect_cluster_members", "Other nodes in the cluster", clusterManager::members);
+            REGISTRY.counter("geyserconnect_cluster_redirects_total", "Players sent to another node as this one was overloaded", clusterManager::redirects);
+        }
+    }
+
+    private static int menuSessions(GeyserConnect geyserConnect) {
+        int sessions = 0;
+        for (GeyserConnection connection : geyserConnect.geyserApi().onlineConnections()) {
+            if (PacketHandler.inMenus((GeyserSession) connection)) {
+                sessions++;
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * The metrics of the storage manager
+     */
+    public record StorageMetrics(Histogram load, Histogram save, LongAdder loadErrors, LongAdder saveErrors) {
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds the metrics and writes them in the Prometheus text format. Metrics sharing a name but with different
+ * labels are written together under one HELP and TYPE as Prometheus expects.
+ */
+public class MetricsRegistry {
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Register a counter
+     *
+     * @param name The name of the counter, ending in _total
+     * @param help What the counter counts
+     * @param labels Pairs of label names and values
+     * @return The counter to increment
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        LongAdder counter = new LongAdder();
+        register(name, help, "counter", new Sample(labels(labels), counter::sum, null));
+        return counter;
+    }
+
+    /**
+     * Register a counter that is kept elsewhere, such as the stats of a component
+     *
+     * @param name The name of the counter, ending in _total
+     * @param help What the counter counts
+     * @param value Reads the current value of the counter
+     * @param labels Pairs of label names and values
+     */
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, "counter", new Sample(labels(labels), value, null));
+    }
+
+    /**
+     * Register a gauge, the value is read when the metrics are scraped
+     *
+     * @param name The name of the gauge
+     * @param help What the gauge measures
+     * @param value Reads the current value of the gauge
+     * @param labels Pairs of label names and values
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, "gauge", new Sample(labels(labels), value, null));
+    }
+
+    /**
+     * Register a histogram of durations
+     *
+     * @param name The name of the histogram, ending in _seconds
+     * @param help What the histogram measures
+     * @param bounds The upper bounds of the buckets in seconds
+     * @param labels Pairs of label names and values
+     * @return The histogram to record to
+     */
+    public Histogram histogram(String name, String help, double[] bounds, String... labels) {
+        Histogram histogram = new Histogram(bounds);
+        register(name, help, "histogram", new Sample(labels(labels), null, histogram));
+        return histogram;
+    }
+
+    private synchronized void register(String name, String help, String type, Sample sample) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        family.samples.add(sample);
+    }
+
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be pairs of names and values");
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            builder.append(i == 0 ? "" : ",").append(labels[i]).append("=\"")
+                .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write every metric in the Prometheus text format
+     *
+     * @param out Where to write the metrics
+     */
+    public synchronized void write(StringBuilder out) {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (Sample sample : family.samples) {
+                if (sample.histogram != null) {
+                    writeHistogram(out, name, sample.labels, sample.histogram);
+                } else {
+                    writeSample(out, name, sample.labels, sample.value.getAsDouble());
+                }
+            }
+        }
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        double[] bounds = histogram.bounds();
+        long[] counts = histogram.counts();
+
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += counts[i];
+            writeSample(out, name + "_bucket", prefix + "le=\"" + bounds[i] + "\"", cumulative);
+        }
+        cumulative += counts[bounds.length];
+        writeSample(out, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+        writeSample(out, name + "_sum", labels, histogram.sumSeconds());
+        writeSample(out, name + "_count", labels, cumulative);
+    }
+
+    private static void writeSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final List<Sample> samples = new ArrayList<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private record Sample(String labels, DoubleSupplier value, Histogram histogram) {
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pings Bedrock servers using a RakNet unconnected ping
+ */
+public final class BedrockPinger {
+    private static final byte UNCONNECTED_PING = 0x01;
+    private static final byte UNCONNECTED_PONG = 0x1c;
+    private static final byte[] MAGIC = {
+        0x00, (byte) 0xff, (byte) 0xff, 0x00, (byte) 0xfe, (byte) 0xfe, (byte) 0xfe, (byte) 0xfe,
+        (byte) 0xfd, (byte) 0xfd, (byte) 0xfd, (byte) 0xfd, 0x12, 0x34, 0x56, 0x78
+    };
+
+    private BedrockPinger() {
+    }
+
+    /**
+     * Ping a Bedrock server
+     *
+     * @param address The address of the server
+     * @param timeout The time to wait for a response in milliseconds
+     * @return The status of the server
+     * @throws IOException If the server didn't respond in time or sent an invalid response
+     */
+    public static ServerStatus ping(InetSocketAddress address, int timeout) throws IOException {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeout);
+
+            long start = System.nanoTime();
+            ByteBuffer ping = ByteBuffer.allocate(1 + 8 + MAGIC.length + 8);
+            ping.put(UNCONNECTED_PING);
+            ping.putLong(start);
+            ping.put(MAGIC);
+            ping.putLong(ThreadLocalRandom.current().nextLong());
+            socket.send(new DatagramPacket(ping.array(), ping.capacity(), address));
+
+            byte[] buffer = new byte[1500];
+            DatagramPacket response = new DatagramPacket(buffer, buffer.length);
+            long deadline = start + timeout * 1_000_000L;
+            while (true) {
+                socket.receive(response);
+                long latency = (System.nanoTime() - start) / 1_000_000;
+
+                ServerStatus status = parsePong(ByteBuffer.wrap(buffer, 0, response.getLength()), start, latency);
+                if (status != null) {
+                    return status;
+                }
+
+                // Not our pong, keep waiting for the rest of the timeout
+                int remaining = (int) ((deadline - System.nanoTime()) / 1_000_000);
+                if (remaining <= 0) {
+                    throw new IOException("No valid pong from " + address);
+                }
+                socket.setSoTimeout(remaining);
+                response.setLength(buffer.length);
+            }
+        }
+    }
+
+    private static ServerStatus parsePong(ByteBuffer buffer, long pingTime, long latency) {
+        try {
+            if (buffer.get() != UNCONNECTED_PONG || buffer.getLong() != pingTime) {
+                return null;
+            }
+            buffer.getLong(); // Server GUID
+            buffer.position(buffer.position() + MAGIC.length);
+
+            int length = buffer.getShort() & 0xFFFF;
+            byte[] bytes = new byte[Math.min(length, buffer.remaining())];
+            buffer.get(bytes);
+
+            // MCPE;motd;protocol;version;players;max players;...
+            String[] parts = new String(bytes, StandardCharsets.UTF_8).split(";");
+            if (parts.length < 6) {
+                return new ServerStatus(true, 0, 0, latency, null);
+            }
+            return new ServerStatus(true, parseInt(parts[4]), parseInt(parts[5]), latency, parts[3]);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int parseInt(String string) {
+        try {
+            return Integer.parseInt(string.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
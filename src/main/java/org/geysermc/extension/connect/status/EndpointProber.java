@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.EndpointProbingSection;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerEndpoint;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pings every endpoint of the global servers that have more than one, keeping a moving average of how long each
+ * takes to answer and how often it fails, so players can be sent to the quickest endpoint that is up.
+ * <p>
+ * For Java servers this is the latency players get as the connection goes through GeyserConnect. Bedrock players
+ * are transferred so connect from wherever they are, but still avoid endpoints that are down.
+ */
+public class EndpointProber {
+    private static final int THREADS = 4;
+
+    // How much each new ping moves the averages
+    private static final double ALPHA = 0.3;
+
+    // Endpoints failing at least this often aren't picked while there are others
+    private static final double UNHEALTHY_FAILURE_RATE = 0.5;
+
+    private final EndpointProbingSection config;
+    private final TimingWheel timingWheel;
+    private final DnsResolver dnsResolver;
+    private final ExecutorService executor;
+
+    private final Map<Server, List<Endpoint>> endpoints = new HashMap<>();
+    private final Set<Endpoint> probing = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder selections = new LongAdder();
+    private final LongAdder alternates = new LongAdder();
+
+    /**
+     * @param config The probing config
+     * @param configServers The global servers, only those with endpoints are probed
+     * @param timingWheel The timing wheel to schedule pings on
+     * @param dnsResolver The resolver to look up endpoints with, or null to use the system resolver
+     */
+    public EndpointProber(EndpointProbingSection config, List<Server> configServers, TimingWheel timingWheel, DnsResolver dnsResolver) {
+        this.config = config;
+        this.timingWheel = timingWheel;
+        this.dnsResolver = dnsResolver;
+
+        for (Server server : configServers) {
+            if (server.endpoints().isEmpty()) continue;
+
+            // The server's own address is always a candidate, the endpoints are alternatives to it
+            List<Endpoint> serverEndpoints = new ArrayList<>();
+            serverEndpoints.add(new Endpoint(server.withEndpoint(new ServerEndpoint(server.address(), server.port(), 1)), 1, new Health()));
+            for (ServerEndpoint endpoint : server.endpoints()) {
+                serverEndpoints.add(new Endpoint(server.withEndpoint(endpoint), endpoint.weight(), new Health()));
+            }
+            endpoints.put(server, List.copyOf(serverEndpoints));
+        }
+
+        this.executor = Executors.newFixedThreadPool(THREADS, Utils.threadFactory("Endpoint Prober"));
+    }
+
+    /**
+     * @param configServers The global servers
+     * @return If any of the servers have endpoints to probe
+     */
+    public static boolean hasEndpoints(List<Server> configServers) {
+        for (Server server : configServers) {
+            if (!server.endpoints().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void start() {
+        sweep();
+    }
+
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Pick the endpoint to send a player to, the quickest of the endpoints that are up after taking
+     * their weights into account. If every endpoint is failing the one failing least is used.
+     *
+     * @param server The server the player picked
+     * @return A copy of the server using the picked endpoint, or the server itself if it has no endpoints
+     */
+    public Server select(Server server) {
+        List<Endpoint> candidates = endpoints.get(server);
+        if (candidates == null) {
+            return server;
+        }
+        selections.increment();
+
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        Endpoint leastFailing = null;
+        int unprobedWeight = 0;
+        for (Endpoint endpoint : candidates) {
+            Health health = endpoint.health();
+            if (leastFailing == null || health.failureRate < leastFailing.health().failureRate) {
+                leastFailing = endpoint;
+            }
+            if (health.failureRate >= UNHEALTHY_FAILURE_RATE) continue;
+
+            if (Double.isNaN(health.latency)) {
+                unprobedWeight += endpoint.weight();
+                continue;
+            }
+
+            double score = health.latency / endpoint.weight();
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+
+        // Nothing has answered yet, likely just after startup, so spread players by weight
+        if (best == null && unprobedWeight > 0) {
+            int selected = ThreadLocalRandom.current().nextInt(unprobedWeight);
+            for (Endpoint endpoint : candidates) {
+                if (endpoint.health().failureRate >= UNHEALTHY_FAILURE_RATE || !Double.isNaN(endpoint.health().latency)) continue;
+
+                selected -= endpoint.weight();
+                if (selected < 0) {
+                    best = endpoint;
+                    break;
+                }
+            }
+        }
+
+        if (best == null) {
+            best = leastFailing;
+        }
+        if (best != candidates.get(0)) {
+            alternates.increment();
+        }
+        return best.server();
+    }
+
+    private void sweep() {
+        if (!running) return;
+
+        long interval = TimeUnit.SECONDS.toMillis(config.interval());
+        for (List<Endpoint> serverEndpoints : endpoints.values()) {
+            for (Endpoint endpoint : serverEndpoints) {
+                timingWheel.schedule(() -> submit(endpoint), ThreadLocalRandom.current().nextLong(interval), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        timingWheel.schedule(this::sweep, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void submit(Endpoint endpoint) {
+        if (!running || !probing.add(endpoint)) return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    probe(endpoint);
+                } finally {
+                    probing.remove(endpoint);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            probing.remove(endpoint);
+        }
+    }
+
+    private void probe(Endpoint endpoint) {
+        probes.increment();
+        Server server = endpoint.server();
+        try {
+            InetSocketAddress address = StatusService.resolve(dnsResolver, server.address(), server.port(), false, config.timeout());
+            if (address.isUnresolved()) {
+                throw new IOException("Couldn't resolve " + server.address());
+            }
+
+            ServerStatus status;
+            if (server.bedrock()) {
+                status = BedrockPinger.ping(address, config.timeout());
+            } else {
+                status = JavaPinger.ping(address, server.address(), config.timeout());
+            }
+            endpoint.health().success(status.latency());
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            endpoint.health().failure();
+            GeyserConnect.instance().logger().debug("Failed to ping endpoint " + server.address() + ":" + server.port() + ": " + e.getMessage());
+        }
+    }
+
+    public int tracked() {
+        int tracked = 0;
+        for (List<Endpoint> serverEndpoints : endpoints.values()) {
+            tracked += serverEndpoints.size();
+        }
+        return tracked;
+    }
+
+    public int healthy() {
+        int healthy = 0;
+        for (List<Endpoint> serverEndpoints : endpoints.values()) {
+            for (Endpoint endpoint : serverEndpoints) {
+                if (endpoint.health().failureRate < UNHEALTHY_FAILURE_RATE) {
+                    healthy++;
+                }
+            }
+        }
+        return healthy;
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long selections() {
+        return selections.sum();
+    }
+
+    /**
+     * @return How many times an endpoint other than the server's own address was picked
+     */
+    public long alternates() {
+        return alternates.sum();
+    }
+
+    private record Endpoint(Server server, int weight, Health health) {
+    }
+
+    /**
+     * Moving averages for an endpoint, only written by the probe of that endpoint
+     */
+    private static final class Health {
+        private volatile double latency = Double.NaN;
+        private volatile double failureRate;
+
+        private void success(long latency) {
+            this.latency = Double.isNaN(this.latency) ? latency : this.latency + ALPHA * (latency - this.latency);
+            this.failureRate = failureRate * (1 - ALPHA);
+        }
+
+        private void failure() {
+            this.failureRate = failureRate * (1 - ALPHA) + ALPHA;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pings Java servers using the Server List Ping protocol
+ */
+public final class JavaPinger {
+    private static final int STATUS_PROTOCOL = -1;
+    private static final int MAX_RESPONSE_LENGTH = 1 << 20;
+
+    private JavaPinger() {
+    }
+
+    /**
+     * Ping a Java server
+     *
+     * @param address The address to connect to
+     * @param host The host name to send in the handshake, servers behind proxies use this for routing
+     * @param timeout The connect and read timeout in milliseconds
+     * @return The status of the server
+     * @throws IOException If the server couldn't be reached or sent an invalid response
+     */
+    public static ServerStatus ping(InetSocketAddress address, String host, int timeout) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeout);
+            socket.connect(address, timeout);
+
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // Handshake into the status state followed by the status request
+            ByteArrayOutputStream handshake = new ByteArrayOutputStream(host.length() + 16);
+            DataOutputStream handshakeOut = new DataOutputStream(handshake);
+            writeVarInt(handshakeOut, 0x00);
+            writeVarInt(handshakeOut, STATUS_PROTOCOL);
+            writeString(handshakeOut, host);
+            handshakeOut.writeShort(address.getPort());
+            writeVarInt(handshakeOut, 1);
+
+            writeVarInt(out, handshake.size());
+            handshake.writeTo(out);
+            writeVarInt(out, 1);
+            writeVarInt(out, 0x00);
+            out.flush();
+
+            readPacketHeader(in, 0x00);
+            int length = readVarInt(in);
+            if (length < 0 || length > MAX_RESPONSE_LENGTH) {
+                throw new IOException("Invalid status response length " + length);
+            }
+            byte[] json = new byte[length];
+            in.readFully(json);
+
+            // Time a ping round trip now the connection is warmed up
+            long start = System.nanoTime();
+            writeVarInt(out, 9);
+            writeVarInt(out, 0x01);
+            out.writeLong(start);
+            out.flush();
+
+            readPacketHeader(in, 0x01);
+            in.readLong();
+            long latency = (System.nanoTime() - start) / 1_000_000;
+
+            return parseStatus(new String(json, StandardCharsets.UTF_8), latency);
+        }
+    }
+
+    private static ServerStatus parseStatus(String json, long latency) throws IOException {
+        int players = 0;
+        int maxPlayers = 0;
+        String version = null;
+
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("players") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    if (field.equals("online") && reader.peek() == JsonToken.NUMBER) {
+                        players = reader.nextInt();
+                    } else if (field.equals("max") && reader.peek() == JsonToken.NUMBER) {
+                        maxPlayers = reader.nextInt();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if (name.equals("version") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("name") && reader.peek() == JsonToken.STRING) {
+                        version = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        return new ServerStatus(true, players, maxPlayers, latency, version);
+    }
+
+    private static void readPacketHeader(DataInputStream in, int expectedId) throws IOException {
+        int length = readVarInt(in);
+        int id = readVarInt(in);
+        if (length <= 0 || id != expectedId) {
+            throw new IOException("Unexpected packet " + id + " with length " + length);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import java.util.Objects;
+
+/**
+ * The result of pinging a server
+ *
+ * @param online If the server responded
+ * @param players The number of players online
+ * @param maxPlayers The player limit of the server
+ * @param latency The round trip time of the ping in milliseconds
+ * @param version The version the server reports, may be null
+ */
+public record ServerStatus(
+    boolean online,
+    int players,
+    int maxPlayers,
+    long latency,
+    String version) {
+    public static final ServerStatus OFFLINE = new ServerStatus(false, 0, 0, -1, null);
+
+    /**
+     * Check if a menu button would show something different for another status.
+     * Latency is compared in buckets as it changes a little with every ping
+     *
+     * @param other The status to compare with
+     * @return If the statuses would show differently
+     */
+    public boolean differsFrom(ServerStatus other) {
+        return online != other.online || players != other.players || maxPlayers != other.maxPlayers
+            || latencyBucket(latency) != latencyBucket(other.latency) || !Objects.equals(version, other.version);
+    }
+
+    /**
+     * Tens of milliseconds up to 100ms, then 50ms steps up to 500ms and 250ms steps after that
+     */
+    private static long latencyBucket(long latency) {
+        if (latency < 100) {
+            return latency / 10;
+        } else if (latency < 500) {
+            return 10 + (latency - 100) / 50;
+        }
+        return 18 + (latency - 500) / 250;
+    }
+}
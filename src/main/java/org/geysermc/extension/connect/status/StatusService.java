@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.StatusSection;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerManager;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically pings the global servers and the custom servers of everyone online so the menus can show
+ * which servers are up. Menus only ever read the cached results, they never wait for a ping.
+ */
+public class StatusService {
+    private final StatusSection config;
+    private final List<Server> configServers;
+    private final TimingWheel timingWheel;
+    private final DnsResolver dnsResolver;
+    private final ExecutorService executor;
+
+    private final Map<Target, ServerStatus> statuses = new ConcurrentHashMap<>();
+    private final Set<Target> probing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param config The status config
+     * @param configServers The global servers
+     * @param timingWheel The timing wheel to schedule pings on
+     * @param dnsResolver The resolver to look up servers with, or null to use the system resolver
+     */
+    public StatusService(StatusSection config, List<Server> configServers, TimingWheel timingWheel, DnsResolver dnsResolver) {
+        this.config = config;
+        this.configServers = configServers;
+        this.timingWheel = timingWheel;
+        this.dnsResolver = dnsResolver;
+
+        // Probes spend nearly all their time waiting on the network so the pool size is the concurrency cap
+        this.executor = Executors.newFixedThreadPool(config.maxConcurrent(), Utils.threadFactory("Status Pinger"));
+    }
+
+    public void start() {
+        sweep();
+    }
+
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the last known status of a server
+     *
+     * @param server The server to get the status of
+     * @return The status or null if the server hasn't been pinged yet
+     */
+    public ServerStatus status(Server server) {
+        return statuses.get(Target.of(server));
+    }
+
+    /**
+     * @return A number that changes when a status changes, used to know when cached buttons are out of date.
+     * Servers going up or down change it straight away, other changes at most once per interval
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Work out what needs pinging and spread the pings randomly over the next interval
+     * so they don't all go out at once
+     */
+    private void sweep() {
+        if (!running) return;
+
+        Set<Target> targets = new HashSet<>();
+        for (Server server : configServers) {
+            targets.add(Target.of(server));
+        }
+        for (Server server : ServerManager.loadedServers()) {
+            targets.add(Target.of(server));
+        }
+
+        // Forget servers nobody can see anymore
+        boolean removed = statuses.keySet().retainAll(targets);
+        if (changed.getAndSet(false) || removed) {
+            version.incrementAndGet();
+        }
+
+        long interval = TimeUnit.SECONDS.toMillis(config.interval());
+        for (Target target : targets) {
+            timingWheel.schedule(() -> submit(target), ThreadLocalRandom.current().nextLong(interval), TimeUnit.MILLISECONDS);
+        }
+
+        timingWheel.schedule(this::sweep, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void submit(Target target) {
+        // Don't pile up pings for a server that is still timing out from last time
+        if (!running || !probing.add(target)) return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    update(target, probe(target));
+                } finally {
+                    probing.remove(target);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            probing.remove(target);
+        }
+    }
+
+    private ServerStatus probe(Target target) {
+        probes.increment();
+        try {
+            InetSocketAddress address = resolve(dnsResolver, target.address(), target.port(), !target.bedrock(), config.timeout());
+            if (address.isUnresolved()) {
+                throw new IOException("Couldn't resolve " + target.address());
+            }
+
+            if (target.bedrock()) {
+                return BedrockPinger.ping(address, config.timeout());
+            }
+            return JavaPinger.ping(address, target.address(), config.timeout());
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            GeyserConnect.instance().logger().debug("Failed to ping " + target.address() + ":" + target.port() + ": " + e.getMessage());
+            return ServerStatus.OFFLINE;
+        }
+    }
+
+    /**
+     * Resolve the address to ping
+     *
+     * @param dnsResolver The resolver to use, or null to use the system resolver
+     * @param host The host to resolve
+     * @param port The port to use if there is no SRV record
+     * @param srv If the SRV record of the host should be used
+     * @param timeout How long in milliseconds to wait for the lookup
+     * @return The address, this is unresolved if the system resolver couldn't find the host
+     * @throws IOException If the lookup failed
+     */
+    static InetSocketAddress resolve(DnsResolver dnsResolver, String host, int port, boolean srv, int timeout) throws IOException {
+        if (dnsResolver != null) {
+            try {
+                InetSocketAddress address = dnsResolver.resolveAddress(host, port, srv).get(timeout, TimeUnit.MILLISECONDS);
+                if (address != null) {
+                    return address;
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IOException("Couldn't resolve " + host, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted resolving " + host, e);
+            }
+        }
+
+        // Fall back to the system for names DNS doesn't know about, such as ones in the hosts file
+        return new InetSocketAddress(host, port);
+    }
+
+    private void update(Target target, ServerStatus status) {
+        ServerStatus old = statuses.put(target, status);
+        if (old == null || old.online() != status.online()) {
+            // Servers being found or going up or down are shown straight away
+            version.incrementAndGet();
+        } else if (status.differsFrom(old)) {
+            // Player counts change with nearly every ping, so only rebuild the buttons for them once a sweep
+            changed.set(true);
+        }
+    }
+
+    public int tracked() {
+        return statuses.size();
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    private record Target(String address, int port, boolean bedrock) {
+        private static Target of(Server server) {
+            return new Target(server.address().toLowerCase(Locale.ROOT), server.port(), server.bedrock());
+        }
+    }
+}
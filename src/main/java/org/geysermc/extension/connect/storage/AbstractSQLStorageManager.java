@@ -25,12 +25,13 @@
 
 package org.geysermc.extension.connect.storage;
 
-import com.google.gson.reflect.TypeToken;
 import org.geysermc.extension.connect.GeyserConnect;
 import org.geysermc.extension.connect.utils.Server;
-import org.geysermc.extension.connect.utils.ServerManager;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.extension.connect.utils.ServerCodec;
 import org.geysermc.extension.connect.utils.Utils;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -38,63 +39,343 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public abstract class AbstractSQLStorageManager extends AbstractStorageManager {
-    protected Connection connection;
+    /**
+     * The schema version this version of GeyserConnect expects, see {@link #migrate(Statement, int)}
+     */
+    private static final int SCHEMA_VERSION = 1;
+
+    private static final String SELECT_SERVERS = "SELECT position, address, port, online, bedrock, name, image_url FROM player_servers WHERE xuid=? ORDER BY position";
+    private static final String INSERT_SERVER = "INSERT INTO player_servers(xuid, position, address, port, online, bedrock, name, image_url) VALUES(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SERVER = "UPDATE player_servers SET address=?, port=?, online=?, bedrock=?, name=?, image_url=? WHERE xuid=? AND position=?";
+    private static final String DELETE_SERVERS = "DELETE FROM player_servers WHERE xuid=? AND position>=?";
+    private static final String SELECT_LEGACY_SERVERS = "SELECT servers FROM players WHERE xuid=?";
+    private static final String DELETE_LEGACY_SERVERS = "DELETE FROM players WHERE xuid=?";
+    private static final String ANY_LEGACY_SERVERS = "SELECT 1 FROM players LIMIT 1";
+
+    /**
+     * Connections used for loading servers
+     */
+    protected ConnectionPool readPool;
+
+    /**
+     * Connections used for saving servers, this can be the same pool as {@link #readPool}
+     */
+    protected ConnectionPool writePool;
+
+    /**
+     * If there are still rows in the old json blob players table that need migrating, cleared once they are all gone
+     */
+    private volatile boolean legacyRows;
 
     @Override
     public void setupStorage() {
         try {
             connectToDatabase();
 
-            try (Statement createPlayersTable = connection.createStatement()) {
-                createPlayersTable.executeUpdate("CREATE TABLE IF NOT EXISTS players (xuid VARCHAR(32), servers TEXT, PRIMARY KEY(xuid));");
+            try (ConnectionPool.PooledConnection connection = writePool.acquire();
+                 Statement statement = connection.connection().createStatement()) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (version INT NOT NULL);");
+
+                int version = 0;
+                try (ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+                    if (rs.next()) {
+                        version = rs.getInt(1);
+                    }
+                }
+
+                if (version > SCHEMA_VERSION) {
+                    GeyserConnect.instance().logger().warning("Database schema version " + version + " is newer than this version of GeyserConnect supports");
+                }
+
+                while (version < SCHEMA_VERSION) {
+                    version++;
+                    GeyserConnect.instance().logger().info("Migrating database schema to version " + version);
+                    migrate(statement, version);
+                    statement.executeUpdate("INSERT INTO schema_version(version) VALUES(" + version + ")");
+                }
+
+                // Players from the old blob table get migrated when they next join
+                legacyRows = anyLegacyRows(connection);
             }
         } catch (ClassNotFoundException | SQLException e) {
-            GeyserConnect.instance().logger().severe("Unable to connect to MySQL database!", e);
+            GeyserConnect.instance().logger().severe("Unable to connect to the database!", e);
         }
     }
 
+    private boolean anyLegacyRows(ConnectionPool.PooledConnection connection) throws SQLException {
+        try (ResultSet rs = connection.prepare(ANY_LEGACY_SERVERS).executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private void migrate(Statement statement, int version) throws SQLException {
+        switch (version) {
+            case 1:
+                // The old table stored the whole list as json, keep it around for migrating players
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS players (xuid VARCHAR(32), servers TEXT, PRIMARY KEY(xuid));");
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS player_servers (xuid VARCHAR(32) NOT NULL, position INT NOT NULL, address VARCHAR(255) NOT NULL, port INT NOT NULL, "
+                    + "online BOOLEAN NOT NULL, bedrock BOOLEAN NOT NULL, name VARCHAR(255), image_url TEXT, PRIMARY KEY(xuid, position));");
+                break;
+            default:
+                throw new SQLException("Unknown schema version " + version);
+        }
+    }
+
+    /**
+     * Set up {@link #readPool} and {@link #writePool} for the database
+     */
     protected abstract void connectToDatabase() throws ClassNotFoundException, SQLException;
 
     @Override
     public void closeStorage() {
-        try {
-            connection.close();
-        } catch (SQLException exception) {
-            GeyserConnect.instance().logger().error("Failed to close SQL connection", exception);
+        super.closeStorage();
+
+        if (readPool != null) {
+            readPool.close();
+        }
+        if (writePool != null && writePool != readPool) {
+            writePool.close();
         }
     }
 
+    /**
+     * @return The pool used for writing, or null if the database couldn't be connected to
+     */
+    public ConnectionPool writePool() {
+        return writePool;
+    }
+
     @Override
-    public void saveServers(org.geysermc.api.connection.Connection session) {
-        // replace into works on MySQL and SQLite
-        try (PreparedStatement updatePlayersServers = connection.prepareStatement("REPLACE INTO players(xuid, servers) VALUES(?, ?)")) {
-            updatePlayersServers.setString(1, session.xuid());
-            updatePlayersServers.setString(2, Utils.GSON.toJson(ServerManager.getServers(session)));
-            updatePlayersServers.executeUpdate();
-        } catch (SQLException exception) {
-            GeyserConnect.instance().logger().error("Couldn't save servers for " + session.bedrockUsername(), exception);
+    public List<ConnectionPool> connectionPools() {
+        if (readPool == null) {
+            return List.of();
         }
+        return writePool == readPool ? List.of(readPool) : List.of(writePool, readPool);
     }
 
     @Override
-    public List<Server> loadServers(org.geysermc.api.connection.Connection session) {
+    protected void writeServers(Map<String, List<Server>> batch) {
+        try (ConnectionPool.PooledConnection pooledConnection = writePool.acquire()) {
+            Connection connection = pooledConnection.connection();
+
+            // Write the whole batch in a single transaction
+            try {
+                connection.setAutoCommit(false);
+
+                for (Map.Entry<String, List<Server>> entry : batch.entrySet()) {
+                    writeChangedServers(pooledConnection, entry.getKey(), entry.getValue());
+                }
+
+                boolean migrated = executeBatches(pooledConnection);
+
+                connection.commit();
+                connection.setAutoCommit(true);
+
+                if (migrated) {
+                    checkLegacyRows(pooledConnection);
+                }
+            } catch (SQLException exception) {
+                // Don't reuse a connection that might be in a bad state
+                pooledConnection.invalidate();
+                saveFailed(batch);
+                GeyserConnect.instance().logger().error("Couldn't save servers for " + batch.size() + " players", exception);
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                }
+            }
+        } catch (SQLException exception) {
+            saveFailed(batch);
+            GeyserConnect.instance().logger().error("Couldn't save servers for " + batch.size() + " players", exception);
+        }
+    }
+
+    /**
+     * Compare the servers with what is stored and batch only the statements for the rows that changed
+     */
+    private void writeChangedServers(ConnectionPool.PooledConnection connection, String xuid, List<Server> servers) throws SQLException {
+        List<Server> existing = selectServers(connection, xuid);
+
+        for (int i = 0; i < servers.size(); i++) {
+            Server server = servers.get(i);
+            if (i >= existing.size()) {
+                PreparedStatement insertServer = connection.prepare(INSERT_SERVER);
+                insertServer.setString(1, xuid);
+                insertServer.setInt(2, i);
+                setServerColumns(insertServer, 3, server);
+                insertServer.addBatch();
+            } else if (!sameColumns(server, existing.get(i))) {
+                PreparedStatement updateServer = connection.prepare(UPDATE_SERVER);
+                setServerColumns(updateServer, 1, server);
+                updateServer.setString(7, xuid);
+                updateServer.setInt(8, i);
+                updateServer.addBatch();
+            }
+        }
+
+        if (existing.size() > servers.size()) {
+            PreparedStatement deleteServers = connection.prepare(DELETE_SERVERS);
+            deleteServers.setString(1, xuid);
+            deleteServers.setInt(2, servers.size());
+            deleteServers.addBatch();
+        }
+
+        if (legacyRows) {
+            PreparedStatement deleteLegacyServers = connection.prepare(DELETE_LEGACY_SERVERS);
+            deleteLegacyServers.setString(1, xuid);
+            deleteLegacyServers.addBatch();
+        }
+    }
+
+    /**
+     * @return If any players were deleted from the old table
+     */
+    private boolean executeBatches(ConnectionPool.PooledConnection connection) throws SQLException {
+        connection.prepare(INSERT_SERVER).executeBatch();
+        connection.prepare(UPDATE_SERVER).executeBatch();
+        connection.prepare(DELETE_SERVERS).executeBatch();
+        if (legacyRows) {
+            for (int count : connection.prepare(DELETE_LEGACY_SERVERS).executeBatch()) {
+                if (count > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop looking in and deleting from the old table once everyone has been moved over
+     */
+    private void checkLegacyRows(ConnectionPool.PooledConnection connection) {
+        try {
+            if (legacyRows && !anyLegacyRows(connection)) {
+                legacyRows = false;
+                GeyserConnect.instance().logger().info("Finished migrating players from the old players table");
+            }
+        } catch (SQLException exception) {
+            // Checked again after the next migration
+            GeyserConnect.instance().logger().debug("Couldn't check for players in the old players table: " + exception.getMessage());
+        }
+    }
+
+    private void setServerColumns(PreparedStatement statement, int index, Server server) throws SQLException {
+        statement.setString(index, server.address());
+        statement.setInt(index + 1, server.port());
+        statement.setBoolean(index + 2, server.online());
+        statement.setBoolean(index + 3, server.bedrock());
+        statement.setString(index + 4, server.name());
+        statement.setString(index + 5, server.imageUrl());
+    }
+
+    /**
+     * Check if two servers would be stored the same, {@link Server#equals(Object)} also compares
+     * fields that aren't stored and the port before the default is filled in
+     */
+    private static boolean sameColumns(Server server, Server other) {
+        return Objects.equals(server.address(), other.address())
+            && server.port() == other.port()
+            && server.online() == other.online()
+            && server.bedrock() == other.bedrock()
+            && Objects.equals(server.name(), other.name())
+            && Objects.equals(server.imageUrl(), other.imageUrl());
+    }
+
+    private List<Server> selectServers(ConnectionPool.PooledConnection connection, String xuid) throws SQLException {
         List<Server> servers = new ArrayList<>();
 
-        try (PreparedStatement getPlayersServers = connection.prepareStatement("SELECT servers FROM players WHERE xuid=?")) {
-            getPlayersServers.setString(1, session.xuid());
-            ResultSet rs = getPlayersServers.executeQuery();
+        PreparedStatement getPlayersServers = connection.prepare(SELECT_SERVERS);
+        getPlayersServers.setString(1, xuid);
 
+        try (ResultSet rs = getPlayersServers.executeQuery()) {
             while (rs.next()) {
-                List<Server> loadedServers = Utils.GSON.fromJson(rs.getString("servers"), new TypeToken<>() {
-                });
-                if (loadedServers != null) {
-                    servers.addAll(loadedServers);
-                }
+                servers.add(new Server(
+                    rs.getString("address"),
+                    rs.getInt("port"),
+                    rs.getBoolean("online"),
+                    rs.getBoolean("bedrock"),
+                    rs.getString("name"),
+                    rs.getString("image_url"),
+                    ServerCategory.CUSTOM
+                ));
+            }
+        }
+
+        return servers;
+    }
+
+    @Override
+    protected List<Server> readServers(org.geysermc.api.connection.Connection session) {
+        List<Server> servers = new ArrayList<>();
+
+        try (ConnectionPool.PooledConnection connection = readPool.acquire()) {
+            try {
+                servers.addAll(selectServers(connection, session.xuid()));
+            } catch (SQLException exception) {
+                connection.invalidate();
+                throw exception;
             }
         } catch (SQLException exception) {
+            loadFailed();
             GeyserConnect.instance().logger().error("Couldn't load servers for " + session.bedrockUsername(), exception);
+            return servers;
+        }
+
+        if (servers.isEmpty() && legacyRows) {
+            servers.addAll(migrateLegacyServers(session));
+        }
+
+        return servers;
+    }
+
+    /**
+     * Move a player's servers from the old json blob table into the new table
+     */
+    private List<Server> migrateLegacyServers(org.geysermc.api.connection.Connection session) {
+        List<Server> servers = new ArrayList<>();
+
+        try (ConnectionPool.PooledConnection pooledConnection = writePool.acquire()) {
+            Connection connection = pooledConnection.connection();
+
+            try {
+                PreparedStatement getPlayersServers = pooledConnection.prepare(SELECT_LEGACY_SERVERS);
+                getPlayersServers.setString(1, session.xuid());
+
+                String json = null;
+                try (ResultSet rs = getPlayersServers.executeQuery()) {
+                    if (rs.next()) {
+                        json = rs.getString("servers");
+                    }
+                }
+
+                if (json != null) {
+                    servers.addAll(ServerCodec.fromJson(json));
+
+                    connection.setAutoCommit(false);
+                    writeChangedServers(pooledConnection, session.xuid(), servers);
+                    executeBatches(pooledConnection);
+                    connection.commit();
+                    connection.setAutoCommit(true);
+
+                    GeyserConnect.instance().logger().debug("Migrated " + servers.size() + " servers for " + Utils.displayName(session));
+                }
+
+                checkLegacyRows(pooledConnection);
+            } catch (SQLException exception) {
+                pooledConnection.invalidate();
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                }
+                throw exception;
+            }
+        } catch (SQLException | IOException exception) {
+            loadFailed();
+            GeyserConnect.instance().logger().error("Couldn't migrate servers for " + session.bedrockUsername(), exception);
         }
 
         return servers;
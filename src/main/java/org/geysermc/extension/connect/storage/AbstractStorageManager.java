@@ -27,32 +27,211 @@ package org.geysermc.extension.connect.storage;
 
 import com.google.gson.annotations.SerializedName;
 import org.geysermc.api.connection.Connection;
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.config.Config;
+import org.geysermc.extension.connect.config.CustomServersSection;
+import org.geysermc.extension.connect.config.ServerCacheSection;
+import org.geysermc.extension.connect.metrics.Metrics;
 import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.Utils;
 import org.spongepowered.configurate.objectmapping.ConfigSerializable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class AbstractStorageManager {
+    protected final WriteBehindQueue writeQueue;
+    protected final ExecutorService ioExecutor;
+    protected final ServerListCache cache;
+    protected final Metrics.StorageMetrics metrics;
+
+    public AbstractStorageManager() {
+        Config config = GeyserConnect.instance().config();
+        CustomServersSection customServers = config.customServers();
+        this.writeQueue = new WriteBehindQueue(this, customServers.maxPendingSaves(), customServers.saveInterval());
+        this.ioExecutor = Executors.newFixedThreadPool(customServers.ioThreads(), Utils.threadFactory("Storage IO"));
+
+        // Another node may save a player's servers while they are cached here, which we would then serve and overwrite
+        ServerCacheSection cacheConfig = customServers.cache();
+        boolean shared = customServers.storageType() == StorageType.MYSQL || (config.cluster() != null && config.cluster().enabled());
+        if (cacheConfig.enabled() && shared) {
+            GeyserConnect.instance().logger().info("Not caching server lists as storage may be shared with other GeyserConnect servers");
+        }
+        this.cache = new ServerListCache(cacheConfig.enabled() && !shared ? cacheConfig.maxEntries() : 0, cacheConfig.maxMemory() * 1024L, TimeUnit.SECONDS.toNanos(cacheConfig.ttl()));
+        this.metrics = Metrics.storage(typeName());
+    }
+
+    private String typeName() {
+        for (StorageType type : StorageType.values()) {
+            if (type.storageManager() == getClass()) {
+                return type.name().toLowerCase();
+            }
+        }
+        return "disabled";
+    }
 
     public void setupStorage() {
     }
 
+    /**
+     * @return The executor for blocking disk and database work, shut down when storage is closed
+     */
+    public Executor ioExecutor() {
+        return ioExecutor;
+    }
+
     public void closeStorage() {
+        ioExecutor.shutdown();
+        writeQueue.close();
+    }
+
+    /**
+     * Queue the player's current servers to be saved, this returns straight away
+     * and the actual write happens in the background
+     *
+     * @param session The player to save the servers of
+     * @param servers The servers to save
+     */
+    public void saveServers(Connection session, List<Server> servers) {
+        List<Server> snapshot = List.copyOf(servers);
+        cache.put(session.xuid(), snapshot);
+        writeQueue.enqueue(session.xuid(), snapshot);
     }
 
-    public void saveServers(Connection session) {
+    /**
+     * Release the player's servers without saving them as they haven't changed,
+     * this keeps them cached in case the player comes straight back
+     *
+     * @param session The player to release the servers of
+     * @param servers The servers as they are in storage
+     */
+    public void releaseServers(Connection session, List<Server> servers) {
+        cache.put(session.xuid(), List.copyOf(servers));
     }
 
     public List<Server> loadServers(Connection session) {
+        List<Server> cached = cachedServers(session);
+        if (cached != null) {
+            return cached;
+        }
+
+        return timedRead(session);
+    }
+
+    /**
+     * Get the servers from memory if we have them, either from a recent unload
+     * or from a save that hasn't been written yet
+     */
+    private List<Server> cachedServers(Connection session) {
+        List<Server> cached = cache.take(session.xuid());
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+
+        // Make sure we don't read old data if the last save hasn't been written yet
+        List<Server> pending = writeQueue.pending(session.xuid());
+        if (pending != null) {
+            return new ArrayList<>(pending);
+        }
+
+        return null;
+    }
+
+    /**
+     * Load the player's servers on the storage IO threads so the caller isn't blocked by storage
+     *
+     * @param session The player to load the servers of
+     * @return A future that completes with the player's servers
+     */
+    public CompletableFuture<List<Server>> loadServersAsync(Connection session) {
+        List<Server> cached = cachedServers(session);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return CompletableFuture.supplyAsync(() -> timedRead(session), ioExecutor);
+    }
+
+    private List<Server> timedRead(Connection session) {
+        long start = System.nanoTime();
+        try {
+            return readServers(session);
+        } finally {
+            metrics.load().observeSince(start);
+        }
+    }
+
+    protected List<Server> readServers(Connection session) {
         return new ArrayList<>();
     }
 
+    /**
+     * Write a batch of queued server lists to storage
+     *
+     * @param batch The servers to write keyed by xuid
+     */
+    protected void writeServers(Map<String, List<Server>> batch) {
+    }
+
+    /**
+     * Count a load that failed, for the storage error metric
+     */
+    protected void loadFailed() {
+        metrics.loadErrors().increment();
+    }
+
+    /**
+     * Count a save that failed, for the storage error metric
+     */
+    protected void saveFailed() {
+        metrics.saveErrors().increment();
+    }
+
+    /**
+     * Count a save that failed and queue the servers to be written again on the next flush
+     *
+     * @param xuid The xuid of the player
+     * @param servers The servers that couldn't be written
+     */
+    protected void saveFailed(String xuid, List<Server> servers) {
+        saveFailed();
+        writeQueue.retry(xuid, servers);
+    }
+
+    /**
+     * Count a batch that failed to save and queue it to be written again on the next flush
+     *
+     * @param batch The servers that couldn't be written keyed by xuid
+     */
+    protected void saveFailed(Map<String, List<Server>> batch) {
+        saveFailed();
+        batch.forEach(writeQueue::retry);
+    }
+
+    public WriteBehindQueue writeQueue() {
+        return writeQueue;
+    }
+
+    public ServerListCache cache() {
+        return cache;
+    }
+
+    public List<ConnectionPool> connectionPools() {
+        return List.of();
+    }
+
     @ConfigSerializable
     public enum StorageType {
         JSON(JsonStorageManager.class),
         SQLITE(SQLiteStorageManager.class),
-        MYSQL(MySQLStorageManager.class);
+        MYSQL(MySQLStorageManager.class),
+        COMPACT(CompactStorageManager.class);
 
         private final Class<? extends AbstractStorageManager> storageManager;
 
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.api.connection.Connection;
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCodec;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Stores every player's servers in a single append-only log file with an in-memory index of where
+ * each player's latest record is. Records are checksummed so a torn write at the end of the file
+ * is dropped on startup, and the log is compacted in the background once it is mostly old records.
+ * <p>
+ * Each record is laid out as: magic (int), payload length (int), CRC32 of the payload (int), payload.
+ * The payload is the player's xuid followed by their encoded servers.
+ */
+public class CompactStorageManager extends AbstractStorageManager {
+    private static final int MAGIC = 0x47435352;
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final long COMPACTION_INTERVAL_MINUTES = 10;
+    private static final long COMPACTION_MIN_SIZE = 1024 * 1024;
+    private static final double COMPACTION_MIN_GARBAGE = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RecordLocation> index = new HashMap<>();
+    private Path file;
+    private FileChannel channel;
+    private long liveBytes;
+    private ScheduledExecutorService compactionExecutor;
+
+    @Override
+    public void setupStorage() {
+        file = GeyserConnect.instance().dataFolder().resolve("players.dat");
+
+        lock.writeLock().lock();
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            loadIndex();
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().severe("Unable to open " + file + "!", e);
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        importJson();
+
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("Storage Compaction"));
+        compactionExecutor.scheduleWithFixedDelay(this::compactIfNeeded, COMPACTION_INTERVAL_MINUTES, COMPACTION_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void closeStorage() {
+        super.closeStorage();
+
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdown();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().error("Failed to close " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scan the log and rebuild the index, anything after the last valid record is cut off
+     */
+    private void loadIndex() throws IOException {
+        index.clear();
+        liveBytes = 0;
+
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position < size) {
+            header.clear();
+            if (readFully(header, position) < HEADER_SIZE) {
+                break;
+            }
+            header.flip();
+
+            int magic = header.getInt();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (magic != MAGIC || length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_SIZE);
+            if (checksum(payload.array()) != checksum) {
+                break;
+            }
+
+            String xuid = new DataInputStream(new ByteArrayInputStream(payload.array())).readUTF();
+            addToIndex(xuid, new RecordLocation(position, HEADER_SIZE + length));
+            position += HEADER_SIZE + length;
+        }
+
+        if (position < size) {
+            GeyserConnect.instance().logger().warning("Dropping " + (size - position) + " bytes of incomplete or corrupt records from " + file);
+            channel.truncate(position);
+            channel.force(true);
+        }
+
+        GeyserConnect.instance().logger().debug("Loaded " + index.size() + " players from " + file);
+    }
+
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private void addToIndex(String xuid, RecordLocation location) {
+        RecordLocation old = index.put(xuid, location);
+        if (old != null) {
+            liveBytes -= old.length();
+        }
+        liveBytes += location.length();
+    }
+
+    /**
+     * Bring in the servers from the json storage type until every player has been imported.
+     * An import cut short part way is picked up again on the next start, skipping the players
+     * already in the log as their servers there are the same or newer.
+     */
+    private void importJson() {
+        File jsonFolder = GeyserConnect.instance().dataFolder().resolve("players").toFile();
+        Path marker = file.resolveSibling(file.getFileName() + ".imported");
+        File[] jsonFiles = jsonFolder.listFiles((dir, name) -> name.endsWith(".json"));
+        if (Files.exists(marker) || jsonFiles == null || jsonFiles.length == 0) {
+            return;
+        }
+
+        GeyserConnect.instance().logger().info("Importing " + jsonFiles.length + " players from " + jsonFolder);
+
+        List<String> imported = new ArrayList<>();
+        Map<String, List<Server>> batch = new LinkedHashMap<>();
+        for (File jsonFile : jsonFiles) {
+            String xuid = jsonFile.getName().substring(0, jsonFile.getName().length() - ".json".length());
+            lock.readLock().lock();
+            try {
+                if (index.containsKey(xuid)) continue;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            try (FileReader reader = new FileReader(jsonFile)) {
+                batch.put(xuid, ServerCodec.readJson(reader));
+                imported.add(xuid);
+            } catch (Exception e) {
+                GeyserConnect.instance().logger().error("Couldn't import servers for " + xuid, e);
+            }
+
+            if (batch.size() >= IMPORT_BATCH_SIZE) {
+                writeServers(batch);
+                batch.clear();
+            }
+        }
+        writeServers(batch);
+
+        // Failed writes are only queued to be retried, so make sure everyone made it into the log before calling it done
+        int missing = 0;
+        lock.readLock().lock();
+        try {
+            for (String xuid : imported) {
+                if (!index.containsKey(xuid)) {
+                    missing++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (missing > 0) {
+            GeyserConnect.instance().logger().warning("Couldn't import " + missing + " players, they will be imported again on the next start");
+            return;
+        }
+
+        try {
+            Files.writeString(marker, "Players were imported from " + jsonFolder + ", delete this file to import them again\n");
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().error("Couldn't mark the import as finished, it will be checked again on the next start", e);
+            return;
+        }
+        GeyserConnect.instance().logger().info("Finished importing players, the " + jsonFolder + " folder is no longer used");
+    }
+
+    @Override
+    protected void writeServers(Map<String, List<Server>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Encode everything up front so the whole batch is a single write
+        List<byte[]> records = new ArrayList<>(batch.size());
+        int totalSize = 0;
+        for (Map.Entry<String, List<Server>> entry : batch.entrySet()) {
+            try {
+                byte[] record = encodeRecord(entry.getKey(), entry.getValue());
+                records.add(record);
+                totalSize += record.length;
+            } catch (IOException e) {
+                saveFailed();
+                GeyserConnect.instance().logger().error("Couldn't encode servers for " + entry.getKey(), e);
+                records.add(null);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+        for (byte[] record : records) {
+            if (record != null) {
+                buffer.put(record);
+            }
+        }
+        buffer.flip();
+
+        lock.writeLock().lock();
+        long start = -1;
+        try {
+            long position = channel.size();
+            start = position;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+
+            // Only point the index at the new records once they are safely on disk
+            long offset = start;
+            int i = 0;
+            for (String xuid : batch.keySet()) {
+                byte[] record = records.get(i++);
+                if (record != null) {
+                    addToIndex(xuid, new RecordLocation(offset, record.length));
+                    offset += record.length;
+                }
+            }
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().error("Couldn't save servers for " + batch.size() + " players", e);
+
+            // Drop anything partially written, otherwise loading the index would stop at it and lose every record after it
+            if (start != -1) {
+                try {
+                    channel.truncate(start);
+                } catch (IOException truncateException) {
+                    GeyserConnect.instance().logger().error("Couldn't remove the partially written servers from " + file, truncateException);
+                }
+            }
+
+            Map<String, List<Server>> failed = new LinkedHashMap<>();
+            int i = 0;
+            for (Map.Entry<String, List<Server>> entry : batch.entrySet()) {
+                if (records.get(i++) != null) {
+                    failed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            saveFailed(failed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected List<Server> readServers(Connection session) {
+        List<Server> servers = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            RecordLocation location = index.get(session.xuid());
+            if (location == null) {
+                return servers;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(location.length());
+            readFully(record, location.position());
+            record.flip();
+
+            if (record.getInt() != MAGIC) {
+                throw new IOException("Invalid record at " + location.position());
+            }
+            int length = record.getInt();
+            int checksum = record.getInt();
+            byte[] payload = new byte[length];
+            record.get(payload);
+            if (checksum(payload) != checksum) {
+                throw new IOException("Checksum mismatch for record at " + location.position());
+            }
+
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+            input.readUTF();
+            servers.addAll(ServerCodec.readBinary(input));
+        } catch (IOException e) {
+            loadFailed();
+            GeyserConnect.instance().logger().error("Couldn't load servers for " + session.bedrockUsername(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return servers;
+    }
+
+    /**
+     * Rewrite the log with only the latest record for each player if it is mostly old records
+     */
+    private void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            long size = channel.size();
+            if (size >= COMPACTION_MIN_SIZE && 1 - (double) liveBytes / size >= COMPACTION_MIN_GARBAGE) {
+                compact();
+            }
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().error("Failed to check the size of " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite the log with only the latest record for each player
+     */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            long size = channel.size();
+            long start = System.nanoTime();
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            Map<String, RecordLocation> newIndex = new HashMap<>();
+            try (FileChannel output = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (Map.Entry<String, RecordLocation> entry : index.entrySet()) {
+                    RecordLocation location = entry.getValue();
+                    channel.transferTo(location.position(), location.length(), output);
+                    newIndex.put(entry.getKey(), new RecordLocation(position, location.length()));
+                    position += location.length();
+                }
+                output.force(true);
+            }
+
+            // Swap the files over, the old log is still complete if we crash before the move
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            index.clear();
+            index.putAll(newIndex);
+
+            GeyserConnect.instance().logger().debug("Compacted " + file + " from " + size + " to " + liveBytes + " bytes in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } catch (IOException e) {
+            GeyserConnect.instance().logger().error("Failed to compact " + file, e);
+            try {
+                // Make sure we still have the log open if it failed part way
+                if (!channel.isOpen()) {
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    loadIndex();
+                }
+            } catch (IOException exception) {
+                GeyserConnect.instance().logger().severe("Unable to reopen " + file + "!", exception);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static byte[] encodeRecord(String xuid, List<Server> servers) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeUTF(xuid);
+        ServerCodec.writeBinary(payload, servers);
+        byte[] payloadArray = payloadBytes.toByteArray();
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payloadArray.length);
+        record.putInt(MAGIC);
+        record.putInt(payloadArray.length);
+        record.putInt(checksum(payloadArray));
+        record.put(payloadArray);
+        return record.array();
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private record RecordLocation(long position, int length) {
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.extension.connect.GeyserConnect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small bounded JDBC connection pool. Connections are validated when they have been idle for a while,
+ * evicted once they pass the idle timeout and transparently reopened if the database drops them.
+ */
+public class ConnectionPool {
+    private static final long ACQUIRE_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+    private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toNanos(10);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String name, int maxSize, ConnectionFactory factory) {
+        this.name = name;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrow a connection from the pool, opening a new one if none are idle.
+     * The connection must be closed to return it to the pool.
+     *
+     * @return The pooled connection
+     * @throws SQLException If no connection could be opened or the pool is exhausted
+     */
+    public PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("The " + name + " connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLException("Timed out waiting for a " + name + " connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a " + name + " connection", e);
+        }
+
+        long wait = System.nanoTime() - start;
+        totalWaitNanos.add(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = new PooledConnection(factory.open());
+                open.incrementAndGet();
+                opened.increment();
+            }
+
+            connection.closed.set(false);
+            active.incrementAndGet();
+            acquired.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection connection;
+            synchronized (idle) {
+                connection = idle.pollFirst();
+            }
+            if (connection == null) {
+                return null;
+            }
+
+            long idleTime = System.nanoTime() - connection.lastUsed;
+            if (idleTime > IDLE_TIMEOUT) {
+                discard(connection);
+                continue;
+            }
+
+            // Only check the connection if it has been sat around, this catches dropped connections
+            // without paying for a round trip on every use
+            if (idleTime > VALIDATION_INTERVAL && !isValid(connection)) {
+                discard(connection);
+                continue;
+            }
+
+            return connection;
+        }
+    }
+
+    private boolean isValid(PooledConnection connection) {
+        try {
+            return connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        active.decrementAndGet();
+        connection.lastUsed = System.nanoTime();
+
+        boolean broken;
+        try {
+            broken = connection.broken || connection.connection.isClosed();
+        } catch (SQLException e) {
+            broken = true;
+        }
+
+        if (broken || closed) {
+            discard(connection);
+        } else {
+            synchronized (idle) {
+                // Most recently used first so rarely used connections age out
+                idle.addFirst(connection);
+            }
+        }
+
+        permits.release();
+        evictIdle();
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        while (true) {
+            PooledConnection connection;
+            synchronized (idle) {
+                connection = idle.peekLast();
+                if (connection == null || now - connection.lastUsed <= IDLE_TIMEOUT) {
+                    return;
+                }
+                idle.pollLast();
+            }
+            discard(connection);
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        open.decrementAndGet();
+        evicted.increment();
+        connection.closeQuietly();
+    }
+
+    public void close() {
+        closed = true;
+        synchronized (idle) {
+            for (PooledConnection connection : idle) {
+                open.decrementAndGet();
+                connection.closeQuietly();
+            }
+            idle.clear();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public int open() {
+        return open.get();
+    }
+
+    public long acquired() {
+        return acquired.sum();
+    }
+
+    public long opened() {
+        return opened.sum();
+    }
+
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long averageWaitNanos() {
+        long count = acquired.sum();
+        return count == 0 ? 0 : totalWaitNanos.sum() / count;
+    }
+
+    public long maxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * A connection borrowed from the pool which keeps its prepared statements around between uses
+     */
+    public class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long lastUsed = System.nanoTime();
+        private boolean broken;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Get a cached prepared statement for this connection, the statement must not be closed
+         *
+         * @param sql The SQL of the statement
+         * @return The prepared statement
+         * @throws SQLException If the statement couldn't be prepared
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        /**
+         * Mark this connection as unusable so it is closed instead of going back into the pool
+         */
+        public void invalidate() {
+            broken = true;
+        }
+
+        /**
+         * Return this connection to the pool, closing it more than once does nothing
+         */
+        @Override
+        public void close() {
+            // Releasing twice would hand out the permit twice and put the connection in the idle list twice
+            if (closed.compareAndSet(false, true)) {
+                release(this);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                GeyserConnect.instance().logger().debug("Failed to close " + name + " connection: " + e.getMessage());
+            }
+        }
+    }
+}
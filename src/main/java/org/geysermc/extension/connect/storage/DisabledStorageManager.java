@@ -30,6 +30,7 @@ import org.geysermc.extension.connect.utils.Server;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class DisabledStorageManager extends AbstractStorageManager {
 
@@ -38,7 +39,12 @@ public class DisabledStorageManager extends AbstractStorageManager {
     }
 
     @Override
-    public void saveServers(Connection session) {
+    public void saveServers(Connection session, List<Server> servers) {
+
+    }
+
+    @Override
+    public void releaseServers(Connection session, List<Server> servers) {
 
     }
 
@@ -46,4 +52,9 @@ public class DisabledStorageManager extends AbstractStorageManager {
     public List<Server> loadServers(Connection session) {
         return new ArrayList<>();
     }
+
+    @Override
+    public CompletableFuture<List<Server>> loadServersAsync(Connection session) {
+        return CompletableFuture.completedFuture(new ArrayList<>());
+    }
 }
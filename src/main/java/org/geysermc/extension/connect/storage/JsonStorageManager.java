@@ -25,12 +25,10 @@
 
 package org.geysermc.extension.connect.storage;
 
-import com.google.gson.reflect.TypeToken;
 import org.geysermc.api.connection.Connection;
 import org.geysermc.extension.connect.GeyserConnect;
 import org.geysermc.extension.connect.utils.Server;
-import org.geysermc.extension.connect.utils.ServerManager;
-import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.extension.connect.utils.ServerCodec;
 
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -38,6 +36,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class JsonStorageManager extends AbstractStorageManager {
     private Path dataFolder;
@@ -51,23 +50,23 @@ public class JsonStorageManager extends AbstractStorageManager {
     }
 
     @Override
-    public void saveServers(Connection session) {
-        try (FileWriter writer = new FileWriter(dataFolder.resolve(session.xuid() + ".json").toFile())) {
-            writer.write(Utils.GSON.toJson(ServerManager.getServers(session)));
-        } catch (IOException ignored) {
+    protected void writeServers(Map<String, List<Server>> batch) {
+        for (Map.Entry<String, List<Server>> entry : batch.entrySet()) {
+            try (FileWriter writer = new FileWriter(dataFolder.resolve(entry.getKey() + ".json").toFile())) {
+                ServerCodec.writeJson(writer, entry.getValue());
+            } catch (IOException exception) {
+                saveFailed(entry.getKey(), entry.getValue());
+                GeyserConnect.instance().logger().error("Couldn't save servers for " + entry.getKey(), exception);
+            }
         }
     }
 
     @Override
-    public List<Server> loadServers(Connection session) {
+    protected List<Server> readServers(Connection session) {
         List<Server> servers = new ArrayList<>();
 
         try (FileReader reader = new FileReader(dataFolder.resolve(session.xuid() + ".json").toFile())) {
-            List<Server> loadedServers = Utils.GSON.fromJson(reader, new TypeToken<>() {
-            });
-            if (loadedServers != null) {
-                servers.addAll(loadedServers);
-            }
+            servers.addAll(ServerCodec.readJson(reader));
         } catch (IOException ignored) {
         }
 
@@ -36,6 +36,14 @@ public class MySQLStorageManager extends AbstractSQLStorageManager {
     protected void connectToDatabase() throws ClassNotFoundException, SQLException {
         Class.forName("com.mysql.cj.jdbc.Driver");
         MySQLConnectionSection connectionInformation = GeyserConnect.instance().config().customServers().mysql();
-        connection = DriverManager.getConnection("jdbc:mysql://" + connectionInformation.host() + ":" + connectionInformation.port() + "/" + connectionInformation.database(), connectionInformation.user(), connectionInformation.pass());
+        String url = "jdbc:mysql://" + connectionInformation.host() + ":" + connectionInformation.port() + "/" + connectionInformation.database();
+
+        // MySQL handles concurrent reads and writes fine so share a single pool
+        readPool = new ConnectionPool("MySQL", GeyserConnect.instance().config().customServers().poolSize(),
+            () -> DriverManager.getConnection(url, connectionInformation.user(), connectionInformation.pass()));
+        writePool = readPool;
+
+        // Open a connection straight away so we fail early on bad details
+        readPool.acquire().close();
     }
 }
@@ -27,13 +27,35 @@ package org.geysermc.extension.connect.storage;
 
 import org.geysermc.extension.connect.GeyserConnect;
 
+import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 public class SQLiteStorageManager extends AbstractSQLStorageManager {
     @Override
     protected void connectToDatabase() throws ClassNotFoundException, SQLException {
         Class.forName("org.sqlite.JDBC");
-        connection = DriverManager.getConnection("jdbc:sqlite:" + GeyserConnect.instance().dataFolder().resolve("players.db"));
+        String url = "jdbc:sqlite:" + GeyserConnect.instance().dataFolder().resolve("players.db");
+
+        // SQLite only allows a single writer, so give it its own connection and
+        // let loads use separate connections that never wait behind a write
+        writePool = new ConnectionPool("SQLite writer", 1, () -> openConnection(url));
+        readPool = new ConnectionPool("SQLite reader", GeyserConnect.instance().config().customServers().poolSize(), () -> openConnection(url));
+
+        // WAL mode is stored in the database file and lets readers run alongside the writer
+        try (ConnectionPool.PooledConnection connection = writePool.acquire();
+             Statement statement = connection.connection().createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+        }
+    }
+
+    private static Connection openConnection(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("PRAGMA busy_timeout=5000");
+        }
+        return connection;
     }
 }
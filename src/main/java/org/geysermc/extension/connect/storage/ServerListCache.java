@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.extension.connect.utils.Server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size, memory and time bounded LRU cache of server lists for players that have recently left,
+ * so reconnecting players (for example using /menu) don't need a storage round trip.
+ */
+public class ServerListCache {
+    private static final int SERVER_OVERHEAD = 128;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ServerListCache(int maxEntries, long maxBytes, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * Store the latest servers for a player, this must be called with every save
+     * so the cache is never older than storage
+     *
+     * @param xuid The xuid of the player
+     * @param servers An immutable list of the player's servers
+     */
+    public void put(String xuid, List<Server> servers) {
+        if (maxEntries <= 0) return;
+
+        long size = estimateSize(servers);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry old = entries.put(xuid, new Entry(servers, now + ttlNanos, size));
+            if (old != null) {
+                bytes -= old.bytes();
+            }
+            bytes += size;
+
+            // Entries all live for the same time so the eldest are always the first to expire
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                if (now - eldest.expiresAt() > 0) {
+                    expirations.increment();
+                } else if (entries.size() > maxEntries || bytes > maxBytes) {
+                    evictions.increment();
+                } else {
+                    break;
+                }
+
+                bytes -= eldest.bytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Take the cached servers for a player, they are removed as they are
+     * put back once the player leaves again
+     *
+     * @param xuid The xuid of the player
+     * @return The servers or null if they weren't cached or have expired
+     */
+    public List<Server> take(String xuid) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(xuid);
+            if (entry != null) {
+                bytes -= entry.bytes();
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.servers();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private static long estimateSize(List<Server> servers) {
+        long size = SERVER_OVERHEAD;
+        for (Server server : servers) {
+            size += SERVER_OVERHEAD + length(server.address()) + length(server.name()) + length(server.imageUrl());
+        }
+        return size;
+    }
+
+    private static long length(String string) {
+        return string == null ? 0 : string.length() * 2L;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    private record Entry(List<Server> servers, long expiresAt, long bytes) {
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers server list saves so they can be written to storage in batches off the network threads.
+ * Saves for the same player are coalesced, only the latest snapshot is written.
+ * Once too many players have saves waiting the writer thread is told to flush early, saves keep
+ * being queued and coalesced in the meantime.
+ */
+public class WriteBehindQueue {
+    private final AbstractStorageManager storageManager;
+    private final int maxPending;
+    private final long flushInterval;
+
+    private final Object flushLock = new Object();
+    private final Map<String, List<Server>> pending = new LinkedHashMap<>();
+    private volatile Map<String, List<Server>> inFlight = Collections.emptyMap();
+
+    private ScheduledExecutorService executor;
+    private boolean closed;
+    private boolean flushRequested;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public WriteBehindQueue(AbstractStorageManager storageManager, int maxPending, long flushInterval) {
+        this.storageManager = storageManager;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Queue a snapshot of a player's servers to be written on the next flush
+     *
+     * @param xuid The xuid of the player
+     * @param servers An immutable snapshot of the servers to save
+     */
+    public void enqueue(String xuid, List<Server> servers) {
+        boolean overflow = false;
+        boolean rejected;
+        synchronized (pending) {
+            // Storage is closed straight after the queue, by a drain or shutdown, so there is nowhere left to write to
+            rejected = closed;
+            if (!rejected) {
+                start();
+
+                if (pending.put(xuid, servers) != null) {
+                    coalesced.increment();
+                } else if (pending.size() > maxPending && !flushRequested) {
+                    // The queue is full so write it now, but on the writer thread so the caller is never held up by storage
+                    flushRequested = true;
+                    overflow = true;
+                    executor.execute(this::flush);
+                }
+            }
+        }
+
+        if (rejected) {
+            this.rejected.increment();
+            GeyserConnect.instance().logger().warning("Storage is closed, not saving the servers of " + xuid);
+            return;
+        }
+        queued.increment();
+        if (overflow) {
+            overflows.increment();
+        }
+    }
+
+    /**
+     * Put a snapshot that failed to be written back in the queue so it is retried on the next flush,
+     * unless a newer snapshot has been queued for the player since
+     *
+     * @param xuid The xuid of the player
+     * @param servers The snapshot that failed to be written
+     */
+    void retry(String xuid, List<Server> servers) {
+        synchronized (pending) {
+            if (pending.putIfAbsent(xuid, servers) == null) {
+                retries.increment();
+            }
+            if (!closed) {
+                start();
+            }
+        }
+    }
+
+    /**
+     * Get the latest snapshot that has been queued but not yet written for a player
+     *
+     * @param xuid The xuid of the player
+     * @return The queued servers or null if nothing is waiting to be written
+     */
+    public List<Server> pending(String xuid) {
+        synchronized (pending) {
+            List<Server> servers = pending.get(xuid);
+            if (servers != null) {
+                return servers;
+            }
+        }
+        return inFlight.get(xuid);
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, List<Server>> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                inFlight = batch;
+                pending.clear();
+                flushRequested = false;
+            }
+
+            long start = System.nanoTime();
+            try {
+                storageManager.writeServers(batch);
+            } catch (Exception e) {
+                storageManager.saveFailed(batch);
+                GeyserConnect.instance().logger().error("Failed to write " + batch.size() + " queued server lists", e);
+            } finally {
+                inFlight = Collections.emptyMap();
+            }
+            long time = System.nanoTime() - start;
+
+            flushes.increment();
+            written.add(batch.size());
+            totalFlushNanos.add(time);
+            lastFlushNanos.set(time);
+            maxFlushNanos.accumulateAndGet(time, Math::max);
+            storageManager.metrics.save().observe(time);
+        }
+    }
+
+    /**
+     * Stop the background flushing and write everything that is still queued.
+     * Saves after this are rejected as storage is closed straight after.
+     */
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        try {
+            if (executor != null && !executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                GeyserConnect.instance().logger().warning("Timed out waiting for the storage flush thread to stop");
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+
+        int failed = depth();
+        if (failed > 0) {
+            GeyserConnect.instance().logger().error("Couldn't write the servers of " + failed + " players before shutting down, their changes are lost");
+        }
+    }
+
+    private void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("Storage Writer"));
+            executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int depth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long queued() {
+        return queued.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long overflows() {
+        return overflows.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long flushes() {
+        return flushes.sum();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long lastFlushNanos() {
+        return lastFlushNanos.get();
+    }
+
+    public long maxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    public long averageFlushNanos() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : totalFlushNanos.sum() / count;
+    }
+}
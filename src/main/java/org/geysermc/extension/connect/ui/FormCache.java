@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.ui;
+
+import org.geysermc.cumulus.component.ButtonComponent;
+import org.geysermc.extension.connect.status.ServerStatus;
+import org.geysermc.extension.connect.status.StatusService;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.geyser.text.ChatColor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The global servers split by category and their menu buttons, built when the config is loaded so opening a menu
+ * doesn't need to filter the servers or build their titles and images again. Server buttons are only rebuilt
+ * when a server status changes.
+ */
+public class FormCache {
+    private static final int MAX_VERSION_LENGTH = 16;
+    private static final String SEPARATOR = " " + ChatColor.DARK_GRAY + "| " + ChatColor.GRAY;
+
+    private final Map<ServerCategory, List<Server>> servers = new EnumMap<>(ServerCategory.class);
+    private final List<ButtonComponent> mainMenuButtons;
+    private final StatusService statusService;
+    private volatile ServerButtons serverButtons;
+
+    /**
+     * @param configServers The global servers
+     * @param customServers If custom servers are enabled
+     * @param statusService The status service to show server statuses from, or null if statuses aren't shown
+     */
+    public FormCache(List<Server> configServers, boolean customServers, StatusService statusService) {
+        this.statusService = statusService;
+
+        Map<ServerCategory, List<Server>> grouped = new EnumMap<>(ServerCategory.class);
+        for (ServerCategory category : ServerCategory.values()) {
+            grouped.put(category, new ArrayList<>());
+        }
+        for (Server server : configServers) {
+            if (server.category() != null) {
+                grouped.get(server.category()).add(server);
+            }
+        }
+
+        for (Map.Entry<ServerCategory, List<Server>> entry : grouped.entrySet()) {
+            servers.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+        serverButtons = buildServerButtons(statusVersion());
+
+        List<ButtonComponent> mainMenu = new ArrayList<>();
+        mainMenu.add(ButtonComponent.of("Official Servers"));
+        mainMenu.add(ButtonComponent.of("Geyser Servers"));
+
+        // Add a buttons for custom servers
+        if (customServers) {
+            mainMenu.add(ButtonComponent.of("Custom Servers"));
+            mainMenu.add(ButtonComponent.of("Direct connect"));
+        }
+
+        mainMenu.add(ButtonComponent.of("Disconnect"));
+        mainMenuButtons = Collections.unmodifiableList(mainMenu);
+    }
+
+    /**
+     * @param category The category to get the servers of
+     * @return An immutable list of the global servers in the category
+     */
+    public List<Server> servers(ServerCategory category) {
+        return servers.get(category);
+    }
+
+    /**
+     * Get the buttons for the global servers in a category, these are rebuilt if any server status has changed
+     *
+     * @param category The category to get the server buttons of
+     * @return The buttons in the same order as {@link #servers(ServerCategory)}
+     */
+    public List<ButtonComponent> serverButtons(ServerCategory category) {
+        ServerButtons cached = serverButtons;
+        long version = statusVersion();
+        if (cached.statusVersion() != version) {
+            cached = buildServerButtons(version);
+            serverButtons = cached;
+        }
+        return cached.buttons().get(category);
+    }
+
+    public List<ButtonComponent> mainMenuButtons() {
+        return mainMenuButtons;
+    }
+
+    /**
+     * Create the buttons for a list of servers that can't be cached, such as a players own servers
+     *
+     * @param servers The servers to create buttons for
+     * @return The buttons
+     */
+    public List<ButtonComponent> buttons(List<Server> servers) {
+        List<ButtonComponent> buttons = new ArrayList<>(servers.size());
+        for (Server server : servers) {
+            buttons.add(button(server));
+        }
+        return Collections.unmodifiableList(buttons);
+    }
+
+    private ButtonComponent button(Server server) {
+        ServerStatus status = statusService != null ? statusService.status(server) : null;
+        if (status == null) {
+            return ButtonComponent.of(server.title(), server.formImage());
+        }
+
+        StringBuilder text = new StringBuilder(server.title()).append('\n');
+        if (!status.online()) {
+            text.append(ChatColor.RED).append("Offline");
+        } else {
+            text.append(ChatColor.GREEN).append(status.players()).append('/').append(status.maxPlayers())
+                .append(SEPARATOR).append(status.latency()).append("ms");
+
+            String version = status.version();
+            if (version != null && !version.isEmpty()) {
+                text.append(SEPARATOR).append(version.length() > MAX_VERSION_LENGTH ? version.substring(0, MAX_VERSION_LENGTH) : version);
+            }
+        }
+
+        return ButtonComponent.of(text.toString(), server.formImage());
+    }
+
+    private ServerButtons buildServerButtons(long statusVersion) {
+        Map<ServerCategory, List<ButtonComponent>> buttons = new EnumMap<>(ServerCategory.class);
+        for (Map.Entry<ServerCategory, List<Server>> entry : servers.entrySet()) {
+            buttons.put(entry.getKey(), buttons(entry.getValue()));
+        }
+        return new ServerButtons(statusVersion, buttons);
+    }
+
+    private long statusVersion() {
+        return statusService != null ? statusService.version() : 0;
+    }
+
+    private record ServerButtons(long statusVersion, Map<ServerCategory, List<ButtonComponent>> buttons) {
+    }
+}
@@ -27,39 +27,63 @@ package org.geysermc.extension.connect.ui;
 
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.admission.AdmissionController;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.metrics.Metrics;
+import org.geysermc.extension.connect.utils.JoinTimer;
 import org.geysermc.extension.connect.utils.Server;
 import org.geysermc.extension.connect.utils.ServerCategory;
 import org.geysermc.extension.connect.utils.ServerManager;
 import org.geysermc.extension.connect.utils.Utils;
+import org.geysermc.cumulus.component.ButtonComponent;
 import org.geysermc.cumulus.form.CustomForm;
+import org.geysermc.cumulus.form.Form;
 import org.geysermc.cumulus.form.ModalForm;
 import org.geysermc.cumulus.form.SimpleForm;
+import org.geysermc.cumulus.form.util.FormBuilder;
 import org.geysermc.geyser.session.GeyserSession;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class UIHandler {
     private final GeyserSession session;
     private final BedrockPacketHandler originalPacketHandler;
+    private volatile long formSentAt;
 
     public UIHandler(GeyserSession session, BedrockPacketHandler originalPacketHandler) {
         this.session = session;
         this.originalPacketHandler = originalPacketHandler;
     }
 
-    public void initialiseSession() {
-        String message = "";
-        try {
-            File messageFile = Utils.fileOrCopiedFromResource(GeyserConnect.instance().config().welcomeFile(), "welcome.txt");
-            message = new String(Utils.readAllBytes(messageFile), StandardCharsets.UTF_8);
-        } catch (IOException ignored) {
+    private void sendForm(FormBuilder<?, ?, ?> form) {
+        sendForm(form.build());
+    }
+
+    private void sendForm(Form form) {
+        session.sendForm(form);
+        Metrics.FORMS_SENT.increment();
+        formSentAt = System.nanoTime();
+        GeyserConnect.instance().joinTimer().mark(session.xuid(), JoinTimer.Stage.FORM_SENT);
+    }
+
+    /**
+     * Record how long the player took to answer the last form they were sent
+     */
+    public void formAnswered() {
+        long sentAt = formSentAt;
+        if (sentAt != 0) {
+            formSentAt = 0;
+            Metrics.FORM_RESPONSE_TIME.observeSince(sentAt);
+            GeyserConnect.instance().joinTimer().mark(session.xuid(), JoinTimer.Stage.FORM_ANSWERED);
         }
+    }
+
+    public void initialiseSession() {
+        String message = GeyserConnect.instance().welcomeMessages().message(session.getClientData().getLanguageCode());
 
-        if (!message.trim().isEmpty()) {
-            session.sendForm(CustomForm.builder()
+        if (!message.isEmpty()) {
+            sendForm(CustomForm.builder()
                 .title("Notice")
                 .label(message)
                 .resultHandler((customForm, customFormResponseFormResponseResult) -> {
@@ -71,20 +95,37 @@ public class UIHandler {
         }
     }
 
+    /**
+     * Show a queued player where they are in the queue, the form is closed once they are admitted
+     */
+    public void sendQueueForm() {
+        AdmissionController admissionController = GeyserConnect.instance().admissionController();
+        int position = admissionController.position(session);
+        if (position == 0) {
+            return;
+        }
+
+        sendForm(SimpleForm.builder()
+            .title("Please Wait")
+            .content("GeyserConnect is busy, you will be let in shortly.\n\nPosition in queue: " + position)
+            .button("Refresh")
+            .closedOrInvalidResultHandler(response -> {
+                sendQueueForm();
+            })
+            .validResultHandler(response -> {
+                sendQueueForm();
+            }));
+    }
+
     public void sendMainMenu() {
         SimpleForm.Builder mainMenu = SimpleForm.builder()
-            .title("Main Menu")
-            .button("Official Servers")
-            .button("Geyser Servers");
-
-        // Add a buttons for custom servers
-        if (GeyserConnect.instance().config().customServers().enabled()) {
-            mainMenu.button("Custom Servers");
-            mainMenu.button("Direct connect");
+            .title("Main Menu");
+
+        for (ButtonComponent button : GeyserConnect.instance().formCache().mainMenuButtons()) {
+            mainMenu.button(button);
         }
 
         mainMenu
-            .button("Disconnect")
             .closedResultHandler(response -> {
                 sendMainMenu();
             })
@@ -116,30 +157,39 @@ public class UIHandler {
                 session.disconnect("disconnectionScreen.disconnected");
             });
 
-        session.sendForm(mainMenu);
+        sendForm(mainMenu);
     }
 
     public void sendServersMenu(ServerCategory category) {
-        SimpleForm.Builder serversMenu = SimpleForm.builder()
-            .title(category.title() + " Servers");
+        // Wait for the players servers to finish loading before showing them
+        if (category == ServerCategory.CUSTOM) {
+            CompletableFuture<List<Server>> loadingServers = ServerManager.getServersAsync(session);
+            if (loadingServers != null && !loadingServers.isDone()) {
+                loadingServers.whenComplete((loadedServers, throwable) -> session.ensureInEventLoop(() -> sendServersMenu(category)));
+                return;
+            }
+        }
 
         List<Server> servers;
+        List<ButtonComponent> buttons;
         if (category == ServerCategory.CUSTOM) {
             servers = ServerManager.getServers(session);
+            buttons = GeyserConnect.instance().formCache().buttons(servers);
         } else {
-            servers = Utils.getServers(category);
+            FormCache formCache = GeyserConnect.instance().formCache();
+            servers = formCache.servers(category);
+            buttons = formCache.serverButtons(category);
         }
 
-        for (Server server : servers) {
-            serversMenu.button(server.title(), server.formImage());
+        // Look up the servers while the player is choosing so connecting doesn't wait on DNS
+        DnsResolver dnsResolver = GeyserConnect.instance().dnsResolver();
+        if (dnsResolver != null) {
+            dnsResolver.prefetch(servers);
         }
 
-        if (category == ServerCategory.CUSTOM) {
-            serversMenu.button("Edit servers");
-        }
+        SimpleForm.Builder serversMenu = serversMenu(category, buttons);
 
         serversMenu
-            .button("Back")
             .closedOrInvalidResultHandler(response -> {
                 sendMainMenu();
             })
@@ -161,7 +211,22 @@ public class UIHandler {
                 Utils.sendToServer(session, originalPacketHandler, server);
             });
 
-        session.sendForm(serversMenu);
+        sendForm(serversMenu);
+    }
+
+    static SimpleForm.Builder serversMenu(ServerCategory category, List<ButtonComponent> buttons) {
+        SimpleForm.Builder serversMenu = SimpleForm.builder()
+            .title(category.title() + " Servers");
+
+        for (ButtonComponent button : buttons) {
+            serversMenu.button(button);
+        }
+
+        if (category == ServerCategory.CUSTOM) {
+            serversMenu.button("Edit servers");
+        }
+
+        return serversMenu.button("Back");
     }
 
     public void sendEditServersMenu() {
@@ -194,11 +259,11 @@ public class UIHandler {
                 sendServerOptionsMenu(server);
             });
 
-        session.sendForm(editServersMenu);
+        sendForm(editServersMenu);
     }
 
     public void sendAddServerMenu() {
-        session.sendForm(CustomForm.builder()
+        sendForm(CustomForm.builder()
             .title("Add Server")
             .input("IP", "play.cubecraft.net")
             .input("Port", "25565", "25565")
@@ -220,7 +285,7 @@ public class UIHandler {
     }
 
     public void sendServerOptionsMenu(Server server) {
-        session.sendForm(SimpleForm.builder()
+        sendForm(SimpleForm.builder()
             .title("Server Options")
             .content(server.title())
             .button("Edit server")
@@ -245,8 +310,7 @@ public class UIHandler {
     }
 
     public void sendEditServerMenu(Server server) {
-        int serverIndex = ServerManager.getServerIndex(session, server);
-        session.sendForm(CustomForm.builder()
+        sendForm(CustomForm.builder()
             .title("Edit Server")
             .input("IP", server.address(), server.address())
             .input("Port", String.valueOf(server.port()), String.valueOf(server.port()))
@@ -262,13 +326,13 @@ public class UIHandler {
                 boolean geyserServer = response.asToggle(3);
 
                 Server newServer = new Server(ip, port, onlineMode, geyserServer, null, null, ServerCategory.CUSTOM);
-                ServerManager.updateServer(session, serverIndex, newServer);
+                ServerManager.updateServer(session, server, newServer);
                 sendServerOptionsMenu(newServer);
             }));
     }
 
     public void sendDeleteServerMenu(Server server) {
-        session.sendForm(ModalForm.builder()
+        sendForm(ModalForm.builder()
             .title("Delete Server")
             .content("Are you sure you want to delete " + server.title() + "?")
             .button1("Yes")
@@ -285,7 +349,7 @@ public class UIHandler {
     }
 
     public void sendDirectConnectMenu() {
-        session.sendForm(CustomForm.builder()
+        sendForm(CustomForm.builder()
             .title("Direct Connect")
             .input("IP", "play.cubecraft.net")
             .input("Port", "25565", "25565")
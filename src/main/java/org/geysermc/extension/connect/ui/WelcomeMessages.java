@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.ui;
+
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.geysermc.extension.connect.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the welcome message and its translations in memory so players joining never touch the disk.
+ * <p>
+ * Translations sit next to the welcome file with the client's language code added to the name, for example
+ * {@code welcome_de_de.txt} or just {@code welcome_de.txt} for every German client. The files are checked
+ * for changes in the background so they can still be edited without a restart.
+ */
+public class WelcomeMessages {
+    private static final long POLL_INTERVAL_SECONDS = 5;
+
+    private final File folder;
+    private final String prefix;
+    private final String suffix;
+
+    private Map<File, FileState> fileStates = Map.of();
+    private volatile Map<String, String> messages = Map.of();
+
+    public WelcomeMessages(String fileName) {
+        File file;
+        try {
+            file = Utils.fileOrCopiedFromResource(fileName, "welcome.txt");
+        } catch (IOException e) {
+            file = GeyserConnect.instance().dataFolder().resolve(fileName).toFile();
+        }
+
+        this.folder = file.getAbsoluteFile().getParentFile();
+
+        String name = file.getName();
+        int extension = name.lastIndexOf('.');
+        this.prefix = extension == -1 ? name : name.substring(0, extension);
+        this.suffix = extension == -1 ? "" : name.substring(extension);
+
+        reload();
+    }
+
+    /**
+     * Get the welcome message for a client
+     *
+     * @param languageCode The language code of the client, such as en_US
+     * @return The message, empty if there is no message to show
+     */
+    public String message(String languageCode) {
+        Map<String, String> messages = this.messages;
+
+        if (languageCode != null && !languageCode.isEmpty()) {
+            String locale = languageCode.toLowerCase(Locale.ROOT);
+            String message = messages.get(locale);
+            if (message != null) {
+                return message;
+            }
+
+            int separator = locale.indexOf('_');
+            if (separator != -1) {
+                message = messages.get(locale.substring(0, separator));
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+
+        return messages.getOrDefault("", "");
+    }
+
+    /**
+     * Start checking the welcome files for changes
+     *
+     * @param timingWheel The timing wheel to schedule the checks on
+     * @param executor The executor to run the checks on, as they touch the disk they are kept off the timing wheel
+     */
+    public void start(TimingWheel timingWheel, Executor executor) {
+        timingWheel.schedule(() -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        reload();
+                    } finally {
+                        start(timingWheel, executor);
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+                // The executor is shut down once nobody else can join to see the messages
+            }
+        }, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reload the messages if any of the files have been added, removed or changed
+     */
+    public synchronized void reload() {
+        Map<File, FileState> states = new HashMap<>();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(suffix));
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    states.put(file, new FileState(file.lastModified(), file.length()));
+                }
+            }
+        }
+
+        if (states.equals(fileStates)) {
+            return;
+        }
+
+        Map<String, String> messages = new HashMap<>();
+        for (File file : states.keySet()) {
+            String name = file.getName();
+            if (name.length() < prefix.length() + suffix.length()) {
+                continue;
+            }
+
+            String locale = name.substring(prefix.length(), name.length() - suffix.length());
+            if (!locale.isEmpty()) {
+                // Translations are named welcome_<locale>.txt
+                if (locale.charAt(0) != '_' || locale.length() == 1) {
+                    continue;
+                }
+                locale = locale.substring(1).toLowerCase(Locale.ROOT);
+            }
+
+            try {
+                String message = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+                if (!message.trim().isEmpty()) {
+                    messages.put(locale, message);
+                }
+            } catch (IOException e) {
+                GeyserConnect.instance().logger().warning("Failed to read welcome message " + name + ": " + e.getMessage());
+            }
+        }
+
+        boolean firstLoad = fileStates.isEmpty();
+        this.fileStates = states;
+        this.messages = Map.copyOf(messages);
+
+        if (!firstLoad) {
+            GeyserConnect.instance().logger().info("Reloaded " + messages.size() + " welcome message(s)");
+        }
+    }
+
+    private record FileState(long lastModified, long length) {
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.api.connection.Connection;
+import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.metrics.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times how long players take from their session initializing to connecting to their Java server,
+ * split by whether they went through the lobby or straight through with the virtual host fast path.
+ * Each stage of the join is also timestamped so the time spent in each phase can be recorded and slow joins logged
+ */
+public class JoinTimer {
+    private static final Stage[] STAGES = Stage.values();
+
+    private final Map<String, Join> joins = new ConcurrentHashMap<>();
+
+    private final Timings fastPath = new Timings();
+    private final Timings lobby = new Timings();
+
+    public void start(Connection session, boolean fastPath) {
+        Join join = new Join(Utils.displayName(session), fastPath);
+        join.marks.set(Stage.INITIALIZED.ordinal(), join.start);
+        if (fastPath) {
+            // Geyser takes over straight away
+            join.marks.set(Stage.HANDOFF.ordinal(), join.start);
+        }
+        joins.put(session.xuid(), join);
+    }
+
+    /**
+     * Record the player as reaching a stage of joining, only the first time is kept
+     * and a stage is ignored until the stage it is timed from has been reached
+     *
+     * @param xuid The xuid of the player
+     * @param stage The stage they reached
+     */
+    public void mark(String xuid, Stage stage) {
+        Join join = joins.get(xuid);
+        if (join != null) {
+            join.mark(stage, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record the player as connecting to their Java server
+     *
+     * @param xuid The xuid of the player
+     */
+    public void connected(String xuid) {
+        Join join = joins.remove(xuid);
+        if (join == null) return;
+
+        long now = System.nanoTime();
+        join.mark(Stage.LOGGED_IN, now);
+
+        long time = now - join.start;
+        (join.fastPath ? fastPath : lobby).record(time);
+        finish(join, time);
+    }
+
+    /**
+     * Record the player as being transferred to a Bedrock server, which is as far as we can follow them
+     *
+     * @param xuid The xuid of the player
+     */
+    public void transferred(String xuid) {
+        Join join = joins.remove(xuid);
+        if (join == null) return;
+
+        long now = System.nanoTime();
+        join.mark(Stage.HANDOFF, now);
+        finish(join, now - join.start);
+    }
+
+    /**
+     * Forget about a player that left without connecting to a Java server
+     *
+     * @param xuid The xuid of the player
+     */
+    public void cancel(String xuid) {
+        joins.remove(xuid);
+    }
+
+    private void finish(Join join, long total) {
+        for (Stage stage : STAGES) {
+            long time = join.phaseTime(stage);
+            if (time != -1) {
+                Metrics.joinPhase(stage).observe(time);
+            }
+        }
+
+        // Only build the breakdown for the joins that are logged
+        int threshold = GeyserConnect.instance().config().metrics().slowJoinThreshold();
+        if (threshold <= 0 || total < TimeUnit.SECONDS.toNanos(threshold)) {
+            return;
+        }
+
+        StringBuilder breakdown = new StringBuilder();
+        for (Stage stage : STAGES) {
+            long time = join.phaseTime(stage);
+            if (time != -1) {
+                breakdown.append(breakdown.isEmpty() ? "" : ", ").append(stage.phase).append(' ').append(String.format("%.2fs", time / 1e9));
+            }
+        }
+        GeyserConnect.instance().logger().warning("Slow join for " + join.name + ": " + String.format("%.2fs", total / 1e9) + " total (" + breakdown + ")");
+    }
+
+    public Timings fastPath() {
+        return fastPath;
+    }
+
+    public Timings lobby() {
+        return lobby;
+    }
+
+    /**
+     * The stages of a join, each phase is timed from an earlier stage rather than the one before
+     * as storage loads while the menu is being shown
+     */
+    public enum Stage {
+        INITIALIZED(null, null),
+        SPAWNED(INITIALIZED, "spawn"),
+        SERVERS_LOADED(SPAWNED, "storage"),
+        FORM_SENT(SPAWNED, "first_form"),
+        FORM_ANSWERED(FORM_SENT, "first_answer"),
+        SERVER_CHOSEN(SPAWNED, "menus"),
+        HANDOFF(SERVER_CHOSEN, "handoff"),
+        LOGGED_IN(HANDOFF, "login");
+
+        private final Stage from;
+        private final String phase;
+
+        Stage(Stage from, String phase) {
+            this.from = from;
+            this.phase = phase;
+        }
+
+        /**
+         * @return The name of the phase ending at this stage, or null for the first stage
+         */
+        public String phase() {
+            return phase;
+        }
+    }
+
+    public static class Timings {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long time) {
+            count.increment();
+            totalNanos.add(time);
+            maxNanos.accumulateAndGet(time, Math::max);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long averageNanos() {
+            long count = this.count.sum();
+            return count == 0 ? 0 : totalNanos.sum() / count;
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    private static final class Join {
+        private final String name;
+        private final boolean fastPath;
+        private final long start = System.nanoTime();
+        // When each stage was reached indexed by the stage, 0 until it is
+        private final AtomicLongArray marks = new AtomicLongArray(STAGES.length);
+
+        private Join(String name, boolean fastPath) {
+            this.name = name;
+            this.fastPath = fastPath;
+        }
+
+        private void mark(Stage stage, long time) {
+            if (stage.from == null || marks.get(stage.from.ordinal()) != 0) {
+                marks.compareAndSet(stage.ordinal(), 0, time);
+            }
+        }
+
+        /**
+         * @return How long the phase ending at a stage took, or -1 if it wasn't timed
+         */
+        private long phaseTime(Stage stage) {
+            if (stage.from == null) {
+                return -1;
+            }
+
+            long from = marks.get(stage.from.ordinal());
+            long to = marks.get(stage.ordinal());
+            return from == 0 || to == 0 ? -1 : to - from;
+        }
+    }
+}
@@ -31,6 +31,8 @@ import org.geysermc.geyser.api.network.AuthType;
 import org.geysermc.geyser.api.network.RemoteServer;
 import org.spongepowered.configurate.objectmapping.ConfigSerializable;
 
+import java.util.List;
+
 @ConfigSerializable
 public record Server(
     String address,
@@ -39,8 +41,13 @@ public record Server(
     boolean bedrock,
     String name,
     String imageUrl,
-    ServerCategory category
+    ServerCategory category,
+    List<ServerEndpoint> endpoints
 ) implements RemoteServer {
+    public Server(String address, int port, boolean online, boolean bedrock, String name, String imageUrl, ServerCategory category) {
+        this(address, port, online, bedrock, name, imageUrl, category, null);
+    }
+
     private int defaultPort() {
         return bedrock ? 19132 : 25565;
     }
@@ -50,6 +57,24 @@ public record Server(
         return port < 0 ? defaultPort() : port;
     }
 
+    /**
+     * @return The addresses this server can be reached on other than its own, empty if it only has the one
+     */
+    @Override
+    public List<ServerEndpoint> endpoints() {
+        return endpoints != null ? endpoints : List.of();
+    }
+
+    /**
+     * Get a copy of this server that connects to one of its endpoints
+     *
+     * @param endpoint The endpoint to connect to
+     * @return The copy of the server
+     */
+    public Server withEndpoint(ServerEndpoint endpoint) {
+        return new Server(endpoint.address(), endpoint.port() > 0 ? endpoint.port() : port(), online, bedrock, name, imageUrl, category);
+    }
+
     @Override
     public @NonNull AuthType authType() {
         return this.online ? AuthType.ONLINE : AuthType.OFFLINE;
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes lists of {@link Server}s for storage without going through Gson reflection.
+ * <p>
+ * The json encoding is compact and leaves out empty fields, but reads anything the old pretty printed
+ * Gson output produced. The binary encoding is versioned by its first byte.
+ */
+public final class ServerCodec {
+    public static final TypeAdapter<Server> JSON_ADAPTER = new ServerTypeAdapter().nullSafe();
+
+    private static final byte BINARY_VERSION_1 = 1;
+    private static final byte BINARY_VERSION_2 = 2;
+
+    private static final int FLAG_ONLINE = 1;
+    private static final int FLAG_BEDROCK = 1 << 1;
+    private static final int FLAG_NAME = 1 << 2;
+    private static final int FLAG_IMAGE_URL = 1 << 3;
+
+    private ServerCodec() {
+    }
+
+    public static String toJson(List<Server> servers) {
+        StringWriter writer = new StringWriter(servers.size() * 64 + 2);
+        try {
+            writeJson(writer, servers);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringWriter threw an IOException", e);
+        }
+        return writer.toString();
+    }
+
+    public static void writeJson(Writer writer, List<Server> servers) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.beginArray();
+        for (Server server : servers) {
+            JSON_ADAPTER.write(jsonWriter, server);
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    public static List<Server> fromJson(String json) throws IOException {
+        return readJson(new StringReader(json));
+    }
+
+    public static List<Server> readJson(Reader reader) throws IOException {
+        List<Server> servers = new ArrayList<>();
+
+        JsonReader jsonReader = new JsonReader(reader);
+        if (jsonReader.peek() == JsonToken.NULL) {
+            return servers;
+        }
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            Server server = JSON_ADAPTER.read(jsonReader);
+            if (server != null) {
+                servers.add(server);
+            }
+        }
+        jsonReader.endArray();
+
+        return servers;
+    }
+
+    public static void writeBinary(DataOutput output, List<Server> servers) throws IOException {
+        // Servers without an address can't be joined, so leave them out rather than failing part way through a record
+        int count = 0;
+        for (Server server : servers) {
+            if (server.address() != null) {
+                count++;
+            }
+        }
+
+        output.writeByte(BINARY_VERSION_2);
+        writeVarInt(output, count);
+        for (Server server : servers) {
+            if (server.address() == null) {
+                continue;
+            }
+
+            int flags = 0;
+            if (server.online()) flags |= FLAG_ONLINE;
+            if (server.bedrock()) flags |= FLAG_BEDROCK;
+            if (server.name() != null) flags |= FLAG_NAME;
+            if (server.imageUrl() != null) flags |= FLAG_IMAGE_URL;
+
+            output.writeByte(flags);
+            output.writeUTF(server.address());
+            writeVarInt(output, server.port());
+            if (server.name() != null) {
+                output.writeUTF(server.name());
+            }
+            if (server.imageUrl() != null) {
+                output.writeUTF(server.imageUrl());
+            }
+        }
+    }
+
+    public static List<Server> readBinary(DataInput input) throws IOException {
+        byte version = input.readByte();
+        switch (version) {
+            case BINARY_VERSION_1:
+                return readBinaryV1(input);
+            case BINARY_VERSION_2:
+                return readBinaryV2(input);
+            default:
+                throw new IOException("Unknown server encoding version " + version);
+        }
+    }
+
+    private static List<Server> readBinaryV2(DataInput input) throws IOException {
+        int count = readVarInt(input);
+        List<Server> servers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = input.readUnsignedByte();
+            String address = input.readUTF();
+            int port = readVarInt(input);
+            String name = (flags & FLAG_NAME) != 0 ? input.readUTF() : null;
+            String imageUrl = (flags & FLAG_IMAGE_URL) != 0 ? input.readUTF() : null;
+
+            servers.add(new Server(address, port, (flags & FLAG_ONLINE) != 0, (flags & FLAG_BEDROCK) != 0, name, imageUrl, ServerCategory.CUSTOM));
+        }
+        return servers;
+    }
+
+    private static List<Server> readBinaryV1(DataInput input) throws IOException {
+        int count = input.readInt();
+        List<Server> servers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            servers.add(new Server(
+                input.readUTF(),
+                input.readInt(),
+                input.readBoolean(),
+                input.readBoolean(),
+                input.readBoolean() ? input.readUTF() : null,
+                input.readBoolean() ? input.readUTF() : null,
+                ServerCategory.CUSTOM
+            ));
+        }
+        return servers;
+    }
+
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    private static final class ServerTypeAdapter extends TypeAdapter<Server> {
+        @Override
+        public void write(JsonWriter out, Server server) throws IOException {
+            out.beginObject();
+            out.name("address").value(server.address());
+            out.name("port").value(server.port());
+            out.name("online").value(server.online());
+            out.name("bedrock").value(server.bedrock());
+            if (server.name() != null) {
+                out.name("name").value(server.name());
+            }
+            if (server.imageUrl() != null) {
+                out.name("imageUrl").value(server.imageUrl());
+            }
+            if (server.category() != null) {
+                out.name("category").value(server.category().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Server read(JsonReader in) throws IOException {
+            String address = null;
+            int port = -1;
+            boolean online = false;
+            boolean bedrock = false;
+            String name = null;
+            String imageUrl = null;
+            ServerCategory category = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (field) {
+                    case "address":
+                        address = in.nextString();
+                        break;
+                    case "port":
+                        port = in.nextInt();
+                        break;
+                    case "online":
+                        online = in.nextBoolean();
+                        break;
+                    case "bedrock":
+                        bedrock = in.nextBoolean();
+                        break;
+                    case "name":
+                        name = in.nextString();
+                        break;
+                    case "imageUrl":
+                        imageUrl = in.nextString();
+                        break;
+                    case "category":
+                        category = parseCategory(in.nextString());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            return new Server(address, port, online, bedrock, name, imageUrl, category);
+        }
+
+        private static ServerCategory parseCategory(String category) {
+            try {
+                return ServerCategory.valueOf(category);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
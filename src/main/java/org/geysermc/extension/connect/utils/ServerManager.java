@@ -28,42 +28,222 @@ package org.geysermc.extension.connect.utils;
 import org.geysermc.api.connection.Connection;
 import org.geysermc.extension.connect.GeyserConnect;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
 public class ServerManager {
-    private static final Map<String, List<Server>> servers = new HashMap<>();
+    private static final Map<String, PlayerServers> servers = new ConcurrentHashMap<>();
 
+    private static final LongAdder savesPerformed = new LongAdder();
+    private static final LongAdder savesSkipped = new LongAdder();
+
+    /**
+     * Start loading the players servers in the background
+     *
+     * @param session The player to load the servers of
+     */
     public static void loadServers(Connection session) {
         GeyserConnect.instance().logger().debug("Loading servers for " + Utils.displayName(session));
-        servers.put(session.xuid(), GeyserConnect.instance().storageManager().loadServers(session));
+        loadServers(session.xuid(), session, GeyserConnect.instance().storageManager().loadServersAsync(session)
+            .exceptionally(throwable -> {
+                GeyserConnect.instance().logger().error("Couldn't load servers for " + session.bedrockUsername(), throwable);
+                return new ArrayList<>();
+            })
+            .whenComplete((loadedServers, throwable) -> GeyserConnect.instance().joinTimer().mark(session.xuid(), JoinTimer.Stage.SERVERS_LOADED)));
+    }
+
+    static void loadServers(String xuid, CompletableFuture<List<Server>> loading) {
+        loadServers(xuid, null, loading);
+    }
+
+    /**
+     * @param owner The session the servers are loaded for, only it can unload them
+     */
+    static void loadServers(String xuid, Object owner, CompletableFuture<List<Server>> loading) {
+        PlayerServers playerServers = new PlayerServers(owner);
+        playerServers.future = loading.thenApply(loadedServers -> {
+            // Set the snapshot before the future completes so anything waiting on it sees the servers
+            List<Server> snapshot = List.copyOf(loadedServers);
+            playerServers.snapshot.compareAndSet(null, new Snapshot(snapshot, 0));
+            return snapshot;
+        });
+        servers.put(xuid, playerServers);
     }
 
     public static void unloadServers(Connection session) {
-        if (getServers(session) == null) return;
+        // If the servers never finished loading there can't be any changes to save
+        Snapshot snapshot = unloadServers(session.xuid(), session);
+        if (snapshot == null) return;
+
+        // Most players never touch their servers so don't write the same list back
+        if (!snapshot.modified()) {
+            GeyserConnect.instance().logger().debug("Unloading unchanged servers for " + Utils.displayName(session));
+            GeyserConnect.instance().storageManager().releaseServers(session, snapshot.servers());
+            savesSkipped.increment();
+            return;
+        }
+
         GeyserConnect.instance().logger().debug("Saving and unloading servers for " + Utils.displayName(session));
-        GeyserConnect.instance().storageManager().saveServers(session);
-        servers.remove(session.xuid());
+        GeyserConnect.instance().storageManager().saveServers(session, snapshot.servers());
+        savesPerformed.increment();
     }
 
+    static Snapshot unloadServers(String xuid) {
+        return unloadServers(xuid, null);
+    }
+
+    static Snapshot unloadServers(String xuid, Object owner) {
+        PlayerServers playerServers = servers.get(xuid);
+
+        // The player can rejoin before their old session is unloaded, which mustn't take the new session's servers with it
+        if (playerServers == null || playerServers.owner != owner || !servers.remove(xuid, playerServers)) {
+            return null;
+        }
+        return playerServers.snapshot.get();
+    }
+
+    /**
+     * Get a snapshot of the players servers if they have finished loading.
+     * The list is immutable so it can safely be indexed while other changes are made.
+     *
+     * @param session The player to get the servers of
+     * @return The servers or null if they aren't loaded yet
+     */
     public static List<Server> getServers(Connection session) {
-        return servers.get(session.xuid());
+        return getServers(session.xuid());
+    }
+
+    static List<Server> getServers(String xuid) {
+        Snapshot snapshot = snapshot(xuid);
+        return snapshot != null ? snapshot.servers() : null;
+    }
+
+    static Snapshot snapshot(String xuid) {
+        PlayerServers playerServers = servers.get(xuid);
+        return playerServers != null ? playerServers.snapshot.get() : null;
+    }
+
+    /**
+     * Get a future that completes once the players servers have loaded,
+     * use {@link #getServers(Connection)} afterwards for the latest servers
+     *
+     * @param session The player to get the servers of
+     * @return The future or null if the servers were never loaded
+     */
+    public static CompletableFuture<List<Server>> getServersAsync(Connection session) {
+        PlayerServers playerServers = servers.get(session.xuid());
+        return playerServers != null ? playerServers.future : null;
     }
 
     public static void addServer(Connection session, Server server) {
-        servers.get(session.xuid()).add(server);
+        update(session, current -> {
+            List<Server> updated = new ArrayList<>(current);
+            updated.add(server);
+            return updated;
+        });
     }
 
     public static void removeServer(Connection session, Server server) {
-        getServers(session).remove(server);
+        update(session, current -> {
+            List<Server> updated = new ArrayList<>(current);
+            updated.remove(server);
+            return updated;
+        });
     }
 
-    public static int getServerIndex(Connection session, Server server) {
-        return getServers(session).indexOf(server);
+    public static void updateServer(Connection session, Server oldServer, Server newServer) {
+        update(session, current -> {
+            int serverIndex = current.indexOf(oldServer);
+            if (serverIndex == -1) {
+                return current;
+            }
+
+            List<Server> updated = new ArrayList<>(current);
+            updated.set(serverIndex, newServer);
+            return updated;
+        });
+    }
+
+    private static void update(Connection session, UnaryOperator<List<Server>> updater) {
+        update(session.xuid(), updater);
+    }
+
+    /**
+     * Atomically swap the players servers for an updated copy
+     *
+     * @param xuid The xuid of the player to update the servers of
+     * @param updater Creates the new list from the current one
+     */
+    static void update(String xuid, UnaryOperator<List<Server>> updater) {
+        PlayerServers playerServers = servers.get(xuid);
+        if (playerServers == null) return;
+
+        while (true) {
+            Snapshot current = playerServers.snapshot.get();
+            if (current == null) return;
+
+            List<Server> updated = updater.apply(current.servers());
+            if (updated.equals(current.servers())) return;
+
+            if (playerServers.snapshot.compareAndSet(current, new Snapshot(List.copyOf(updated), current.version() + 1))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get every custom server of the players that are online, a server used by several players is included for each of them
+     *
+     * @return The servers
+     */
+    public static List<Server> loadedServers() {
+        List<Server> loaded = new ArrayList<>();
+        for (PlayerServers playerServers : servers.values()) {
+            Snapshot snapshot = playerServers.snapshot.get();
+            if (snapshot != null) {
+                loaded.addAll(snapshot.servers());
+            }
+        }
+        return loaded;
+    }
+
+    public static int loadedPlayers() {
+        return servers.size();
+    }
+
+    public static long savesPerformed() {
+        return savesPerformed.sum();
+    }
+
+    public static long savesSkipped() {
+        return savesSkipped.sum();
+    }
+
+    private static final class PlayerServers {
+        private final Object owner;
+        private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+        private CompletableFuture<List<Server>> future;
+
+        private PlayerServers(Object owner) {
+            this.owner = owner;
+        }
     }
 
-    public static void updateServer(Connection session, int serverIndex, Server server) {
-        getServers(session).set(serverIndex, server);
+    /**
+     * An immutable view of a players servers
+     *
+     * @param servers The servers
+     * @param version Bumped on every change, version 0 is the list exactly as it was loaded from storage
+     */
+    record Snapshot(List<Server> servers, int version) {
+        boolean modified() {
+            return version != 0;
+        }
     }
 }
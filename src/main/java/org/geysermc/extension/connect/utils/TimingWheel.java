@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.extension.connect.GeyserConnect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A hashed timing wheel for large numbers of short, fire and forget delays. Scheduling is a lock free queue add
+ * instead of a heap insert, and everything runs on a single thread which ticks through the wheel.
+ * Tasks run up to one tick late and can't be cancelled.
+ */
+public class TimingWheel {
+    private final long tickNanos;
+    private final List<Task>[] buckets;
+    private final Queue<Task> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder executed = new LongAdder();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+
+        this.thread = Utils.threadFactory(name).newThread(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * Run a task after the given delay
+     *
+     * @param task The task to run
+     * @param delay The delay before running the task
+     * @param unit The unit of the delay
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) return;
+
+        pending.incrementAndGet();
+        incoming.add(new Task(task, System.nanoTime() + unit.toNanos(delay)));
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        while (running) {
+            long deadline = start + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+
+            transferIncoming(start);
+            expire(buckets[(int) (tick % buckets.length)], deadline);
+            tick++;
+        }
+    }
+
+    private void transferIncoming(long start) {
+        Task task;
+        while ((task = incoming.poll()) != null) {
+            // Run the task at the end of the tick it is due in, tasks that are already due go in the current bucket
+            long ticks = Math.max((task.deadline - start + tickNanos - 1) / tickNanos - 1, tick);
+            task.rounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks % buckets.length)].add(task);
+        }
+    }
+
+    private void expire(List<Task> bucket, long deadline) {
+        Iterator<Task> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            if (task.rounds > 0 || task.deadline - deadline > 0) {
+                task.rounds--;
+                continue;
+            }
+
+            iterator.remove();
+            pending.decrementAndGet();
+            executed.increment();
+            try {
+                task.runnable.run();
+            } catch (Throwable throwable) {
+                GeyserConnect.instance().logger().error("Error running scheduled task", throwable);
+            }
+        }
+    }
+
+    /**
+     * Stop the wheel, any tasks still waiting are dropped
+     */
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    public long executed() {
+        return executed.sum();
+    }
+
+    private static final class Task {
+        private final Runnable runnable;
+        private final long deadline;
+        private long rounds;
+
+        private Task(Runnable runnable, long deadline) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+        }
+    }
+}
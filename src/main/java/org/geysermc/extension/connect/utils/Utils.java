@@ -25,17 +25,18 @@
 
 package org.geysermc.extension.connect.utils;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.bedrock.packet.SetLocalPlayerAsInitializedPacket;
 import org.cloudburstmc.protocol.bedrock.packet.TransferPacket;
 import org.geysermc.api.connection.Connection;
 import org.geysermc.extension.connect.GeyserConnect;
+import org.geysermc.extension.connect.dns.DnsResolver;
+import org.geysermc.extension.connect.metrics.Metrics;
+import org.geysermc.extension.connect.status.EndpointProber;
+import org.geysermc.geyser.api.network.RemoteServer;
 import org.geysermc.geyser.session.GeyserSession;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -44,15 +45,10 @@ import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Utils {
-    public static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-
-    public static List<Server> getServers(ServerCategory category) {
-        return GeyserConnect.instance().config().servers().stream().filter(server -> server.category() == category).toList();
-    }
-
     public static File fileOrCopiedFromResource(String fileName, String name) throws IOException {
         File file = GeyserConnect.instance().dataFolder().resolve(fileName).toFile();
 
@@ -80,10 +76,59 @@ public class Utils {
         return session.bedrockUsername() + " (" + session.xuid() + ")";
     }
 
+    /**
+     * Transfer a player back to the address they joined with, taking them back to the menu
+     *
+     * @param session The player to reconnect
+     */
+    public static void reconnect(GeyserSession session) {
+        String serverAddress = session.getClientData().getServerAddress();
+        String ip = serverAddress.split(":")[0];
+        int port = 19132;
+        try {
+            port = Integer.parseInt(serverAddress.split(":")[1]);
+        } catch (NumberFormatException ignored) {
+        }
+
+        TransferPacket transferPacket = new TransferPacket();
+        transferPacket.setAddress(ip);
+        transferPacket.setPort(port);
+        session.sendUpstreamPacket(transferPacket);
+    }
+
     public static void sendToServer(GeyserSession session, BedrockPacketHandler originalPacketHandler, Server server) {
+        GeyserConnect.instance().joinTimer().mark(session.xuid(), JoinTimer.Stage.SERVER_CHOSEN);
+
+        // Servers with multiple endpoints go to whichever is currently the quickest
+        EndpointProber endpointProber = GeyserConnect.instance().endpointProber();
+        if (endpointProber != null) {
+            server = endpointProber.select(server);
+        }
+
+        DnsResolver dnsResolver = GeyserConnect.instance().dnsResolver();
+        if (dnsResolver == null) {
+            sendToServer(session, originalPacketHandler, server, server);
+            return;
+        }
+
+        // This is usually already cached from when the server list was shown so carries on straight away
+        Server target = server;
+        dnsResolver.resolve(target).whenComplete((remoteServer, throwable) -> session.ensureInEventLoop(() -> {
+            if (!session.isClosed()) {
+                sendToServer(session, originalPacketHandler, target, remoteServer != null ? remoteServer : target);
+            }
+        }));
+    }
+
+    private static void sendToServer(GeyserSession session, BedrockPacketHandler originalPacketHandler, Server server, RemoteServer remoteServer) {
         GeyserConnect.instance().logger().info("Sending " + Utils.displayName(session) + " to " + server.title());
         GeyserConnect.instance().logger().debug(server.toString());
 
+        // Virtual host servers don't have a category and are counted as routes instead
+        if (server.category() != null) {
+            Metrics.transfers(server.category()).increment();
+        }
+
         // Save the player's servers since we are changing packet handlers
         // (and they are going to disconnect if it is a bedrock server)
         ServerManager.unloadServers(session);
@@ -97,9 +142,10 @@ public class Utils {
             transferPacket.setAddress(server.address());
             transferPacket.setPort(server.port());
             session.sendUpstreamPacket(transferPacket);
+            GeyserConnect.instance().joinTimer().transferred(session.xuid());
         } else {
             // Set the remote server and un-initialize the session
-            session.remoteServer(server);
+            session.remoteServer(remoteServer);
             session.getUpstream().setInitialized(false);
 
             // If we are offline then authenticate
@@ -109,6 +155,7 @@ public class Utils {
             }
 
             // Hand back to core geyser
+            GeyserConnect.instance().joinTimer().mark(session.xuid(), JoinTimer.Stage.HANDOFF);
             SetLocalPlayerAsInitializedPacket initializedPacket = new SetLocalPlayerAsInitializedPacket();
             initializedPacket.setRuntimeEntityId(session.getPlayerEntity().getGeyserId());
             originalPacketHandler.handle(initializedPacket);
@@ -116,16 +163,17 @@ public class Utils {
     }
 
     /**
-     * Read all bytes from a file
+     * Create a thread factory for daemon threads so background tasks never hold up a shutdown
      *
-     * @param file File to read bytes of
-     * @return The byte array of the file
+     * @param name The name to give the threads
+     * @return The thread factory
      */
-    public static byte[] readAllBytes(File file) {
-        try (InputStream stream = new FileInputStream(file)) {
-            return stream.readAllBytes();
-        } catch (IOException e) {
-            throw new RuntimeException("Cannot read " + file);
-        }
+    public static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "GeyserConnect " + name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
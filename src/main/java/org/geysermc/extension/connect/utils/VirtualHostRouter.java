@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.extension.connect.config.VirtualHostSection;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Works out which server a player wants from the address they connected with, for example
+ * {@code mc.example.net._p25566._o.connect.example.com} sends the player to mc.example.net:25566 in offline mode.
+ * <p>
+ * The virtual host domains are stored in a trie of their labels in reverse so the connected address
+ * can be matched from the end without any regex, and recent results are cached by the raw address.
+ */
+public class VirtualHostRouter {
+    private static final int MAX_CACHED = 1024;
+    private static final int DEFAULT_PORT = 25565;
+
+    private final VirtualHostSection config;
+    private final Node root = new Node();
+    private final Map<String, Route> cache = new ConcurrentHashMap<>();
+
+    public VirtualHostRouter(VirtualHostSection config) {
+        this.config = config;
+
+        for (String domain : config.domains()) {
+            Node node = root;
+            String[] labels = domain.strip().split("\\.");
+            for (int i = labels.length - 1; i >= 0; i--) {
+                if (!labels[i].isEmpty()) {
+                    node = node.child(labels[i]);
+                }
+            }
+            if (node != root) {
+                node.terminal = true;
+            }
+        }
+    }
+
+    /**
+     * @return The config this router was built from
+     */
+    public VirtualHostSection config() {
+        return config;
+    }
+
+    /**
+     * Find the server a player wants to join from the address they connected with
+     *
+     * @param serverAddress The address the player connected with
+     * @return The route for the player, or null if they didn't use a virtual host
+     */
+    public Route route(String serverAddress) {
+        if (serverAddress == null) {
+            return null;
+        }
+
+        Route route = cache.get(serverAddress);
+        if (route != null) {
+            return route == Route.NONE ? null : route;
+        }
+
+        route = parse(serverAddress);
+
+        // Results never change for an address, so just start again if players manage to fill the cache
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(serverAddress, route);
+
+        return route == Route.NONE ? null : route;
+    }
+
+    Route parse(String serverAddress) {
+        String address = serverAddress.strip();
+
+        // Ignore the port the player connected to
+        int end = address.length();
+        int colon = address.lastIndexOf(':');
+        if (colon != -1 && colon < end - 1 && isDigits(address, colon + 1, end)) {
+            end = colon;
+        }
+
+        // Walk the labels from the end to find the longest virtual host domain
+        int targetEnd = -1;
+        Node node = root;
+        int labelEnd = end;
+        while (labelEnd > 0) {
+            int labelStart = address.lastIndexOf('.', labelEnd - 1) + 1;
+            node = node.find(address, labelStart, labelEnd - labelStart);
+            if (node == null) {
+                break;
+            }
+
+            if (node.terminal) {
+                targetEnd = labelStart - 1;
+            }
+            labelEnd = labelStart - 1;
+        }
+
+        // Either no virtual host was matched or the player connected to one directly
+        if (targetEnd <= 0) {
+            return Route.NONE;
+        }
+
+        return parseTarget(address, targetEnd);
+    }
+
+    /**
+     * Parse the {@code address._p<port>._o} part of the connected address
+     */
+    private static Route parseTarget(String address, int end) {
+        int addressEnd = address.indexOf("._", 0);
+        if (addressEnd == -1 || addressEnd > end) {
+            addressEnd = end;
+        }
+
+        // They didn't specify an address
+        if (addressEnd == 0 || address.charAt(0) == '_') {
+            return Route.INVALID;
+        }
+
+        int port = DEFAULT_PORT;
+        boolean online = true;
+
+        int partStart = addressEnd + 2;
+        while (partStart < end) {
+            int partEnd = address.indexOf("._", partStart);
+            if (partEnd == -1 || partEnd > end) {
+                partEnd = end;
+            }
+
+            if (partStart < partEnd) {
+                char modifier = address.charAt(partStart);
+                if (modifier == 'p') {
+                    port = parsePort(address, partStart + 1, partEnd);
+                    if (port == -1) {
+                        return Route.INVALID;
+                    }
+                } else if (modifier == 'o') {
+                    online = false;
+                }
+            }
+
+            partStart = partEnd + 2;
+        }
+
+        return new Route(new Server(address.substring(0, addressEnd), port, online, false, null, null, null));
+    }
+
+    private static int parsePort(String address, int start, int end) {
+        if (start == end || end - start > 5 || !isDigits(address, start, end)) {
+            return -1;
+        }
+
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            port = port * 10 + (address.charAt(i) - '0');
+        }
+        return port > 0 && port <= 65535 ? port : -1;
+    }
+
+    private static boolean isDigits(String string, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param server The server to send the player to, or null if the virtual host was invalid
+     */
+    public record Route(Server server) {
+        static final Route NONE = new Route(null);
+        static final Route INVALID = new Route(null);
+
+        public boolean valid() {
+            return server != null;
+        }
+    }
+
+    private static final class Node {
+        private String[] labels = new String[0];
+        private Node[] children = new Node[0];
+        private boolean terminal;
+
+        private Node child(String label) {
+            Node child = find(label, 0, label.length());
+            if (child == null) {
+                child = new Node();
+                labels = Arrays.copyOf(labels, labels.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                labels[labels.length - 1] = label;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        private Node find(String string, int offset, int length) {
+            // There are only ever a handful of domains so a scan beats hashing a substring
+            for (int i = 0; i < labels.length; i++) {
+                String label = labels[i];
+                if (label.length() == length && label.regionMatches(true, 0, string, offset, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+}
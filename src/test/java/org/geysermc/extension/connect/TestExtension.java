@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect;
+
+import org.geysermc.extension.connect.config.Config;
+import org.geysermc.geyser.api.extension.ExtensionLogger;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+
+/**
+ * Stands in for the extension in tests, as most classes log and read the config through {@link GeyserConnect#instance()}.
+ * Only warnings and errors are printed so tests stay quiet.
+ */
+public class TestExtension extends GeyserConnect {
+    private static final ExtensionLogger LOGGER = (ExtensionLogger) Proxy.newProxyInstance(TestExtension.class.getClassLoader(), new Class<?>[]{ExtensionLogger.class}, (proxy, method, args) -> {
+        switch (method.getName()) {
+            case "severe", "error", "warning":
+                System.err.println("[" + method.getName() + "] " + args[0]);
+                if (args.length > 1 && args[1] instanceof Throwable throwable) {
+                    throwable.printStackTrace();
+                }
+                break;
+            case "isDebug":
+                return false;
+            default:
+                break;
+        }
+        return null;
+    });
+
+    private final Config config;
+    private final Path dataFolder;
+
+    /**
+     * Install a test extension as the instance
+     *
+     * @param config The config to give out, may be null if the code under test doesn't read it
+     */
+    public TestExtension(Config config) {
+        this(config, null);
+    }
+
+    /**
+     * Install a test extension as the instance
+     *
+     * @param config The config to give out, may be null if the code under test doesn't read it
+     * @param dataFolder The folder to give out for storage, may be null if the code under test doesn't use it
+     */
+    public TestExtension(Config config, Path dataFolder) {
+        this.config = config;
+        this.dataFolder = dataFolder;
+    }
+
+    @Override
+    public ExtensionLogger logger() {
+        return LOGGER;
+    }
+
+    @Override
+    public Config config() {
+        return config;
+    }
+
+    @Override
+    public Path dataFolder() {
+        return dataFolder;
+    }
+}
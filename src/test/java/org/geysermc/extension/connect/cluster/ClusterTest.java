@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.cluster;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.ClusterSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs several cluster members in this JVM, each gossiping on its own loopback port
+ */
+class ClusterTest {
+    private static final String SECRET = "correct horse battery staple";
+    private static final long EXPIRY = TimeUnit.SECONDS.toMillis(10);
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        new TestExtension(null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void membersFindEachOtherThroughACommonSeed() throws Exception {
+        GossipMembership a = member("a", EXPIRY, SECRET);
+        GossipMembership b = member("b", EXPIRY, SECRET, a);
+        GossipMembership c = member("c", EXPIRY, SECRET, a);
+
+        waitFor(() -> {
+            publish(a, load("a", 10));
+            publish(b, load("b", 20));
+            publish(c, load("c", 30));
+            return ids(a).equals(List.of("b", "c")) && ids(b).equals(List.of("a", "c")) && ids(c).equals(List.of("a", "b"));
+        });
+
+        // B only knows of C through A, but still sees its load
+        NodeLoad seen = b.members().stream().filter(load -> load.id().equals("c")).findFirst().orElseThrow();
+        assertEquals(30, seen.sessions());
+        assertEquals(100, seen.capacity());
+        assertEquals("127.0.0.1", seen.address());
+    }
+
+    @Test
+    void forgedGossipIsIgnored() throws Exception {
+        GossipMembership a = member("a", EXPIRY, SECRET);
+        GossipMembership wrongSecret = member("wrong", EXPIRY, "not the secret", a);
+
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            // A well formed packet with a made up signature
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0x47434e32);
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF("forged");
+            out.writeUTF("203.0.113.1");
+            out.writeInt(19132);
+            out.writeInt(0);
+            out.writeInt(100);
+            out.writeFloat(0);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeUTF("");
+            out.write(new byte[32]);
+            byte[] forged = bytes.toByteArray();
+
+            GossipMembership genuine = member("genuine", EXPIRY, SECRET, a);
+            waitFor(() -> {
+                publish(wrongSecret, load("wrong", 0));
+                socket.send(new DatagramPacket(forged, forged.length, a.localAddress()));
+                publish(genuine, load("genuine", 0));
+                return ids(a).contains("genuine");
+            });
+        }
+
+        assertEquals(List.of("genuine"), ids(a));
+    }
+
+    @Test
+    void staleGossipIsIgnored() throws Exception {
+        long expiry = 500;
+        GossipMembership a = member("a", expiry, SECRET);
+
+        try (DatagramSocket capture = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            capture.setSoTimeout(2000);
+            GossipMembership b = new GossipMembership("b", loopback(), List.of(a.localAddress(), (InetSocketAddress) capture.getLocalSocketAddress()), expiry, SECRET);
+            b.publish(load("b", 0));
+            b.close();
+
+            byte[] buffer = new byte[1400];
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            capture.receive(packet);
+            byte[] captured = Arrays.copyOf(buffer, packet.getLength());
+
+            waitFor(() -> ids(a).contains("b"));
+            waitFor(() -> a.members().isEmpty());
+            Thread.sleep(expiry);
+            // Publishing forgets the nodes that have expired, including what was last heard from them
+            publish(a, load("a", 0));
+
+            // Replaying it once it is older than the expiry mustn't bring the node back
+            capture.send(new DatagramPacket(captured, captured.length, a.localAddress()));
+            Thread.sleep(200);
+            assertTrue(a.members().isEmpty(), "A replayed packet was accepted: " + a.members());
+        }
+    }
+
+    @Test
+    void overloadedNodesSendPlayersToTheLeastLoadedPeer() throws Exception {
+        GossipMembership a = member("a", EXPIRY, SECRET);
+        GossipMembership b = member("b", EXPIRY, SECRET, a);
+        GossipMembership c = member("c", EXPIRY, SECRET, a);
+        GossipMembership full = member("full", EXPIRY, SECRET, a);
+
+        waitFor(() -> {
+            publish(b, load("b", 30));
+            publish(c, load("c", 20));
+            publish(full, load("full", 100));
+            return a.members().size() == 3;
+        });
+
+        ClusterSection config = new ClusterSection(true, "a", "127.0.0.1", 19132, "gossip", null, 0, SECRET, null, 2, 10, 100, 0.9, 100);
+        ClusterManager manager = new ClusterManager(config, a, 100);
+        closeables.add(manager::stop);
+
+        assertNull(manager.select(load("a", 50)), "Nodes that aren't overloaded keep their players");
+        assertEquals("c", manager.select(load("a", 100)).id());
+
+        // Players sent to C count towards its load until it publishes again, so once it passes B they go to B
+        NodeLoad target = a.members().stream().filter(load -> load.id().equals("c")).findFirst().orElseThrow();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("c", manager.select(load("a", 100)).id());
+            manager.redirected(target);
+        }
+        manager.redirected(target);
+        assertEquals("b", manager.select(load("a", 100)).id());
+        assertEquals(11, manager.redirects());
+    }
+
+    private GossipMembership member(String id, long expiry, String secret, GossipMembership... seeds) throws Exception {
+        List<InetSocketAddress> seedAddresses = new ArrayList<>();
+        for (GossipMembership seed : seeds) {
+            seedAddresses.add(seed.localAddress());
+        }
+
+        GossipMembership member = new GossipMembership(id, loopback(), seedAddresses, expiry, secret);
+        closeables.add(member::close);
+        return member;
+    }
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    private static NodeLoad load(String id, int sessions) {
+        return new NodeLoad(id, "127.0.0.1", 19132, sessions, 100, 0.1, 5, System.currentTimeMillis());
+    }
+
+    private static void publish(GossipMembership member, NodeLoad load) {
+        try {
+            member.publish(load);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static List<String> ids(GossipMembership member) {
+        return member.members().stream().map(NodeLoad::id).sorted().toList();
+    }
+
+    private static void waitFor(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.check()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(50);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean check() throws Exception;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.DnsSection;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.geyser.api.network.RemoteServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DnsResolverTest {
+    private static final String SRV_PREFIX = "_minecraft._tcp.";
+
+    private StubDnsServer stub;
+    private DnsResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new TestExtension(null);
+        stub = new StubDnsServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (resolver != null) {
+            resolver.close();
+        }
+        stub.close();
+    }
+
+    @Test
+    void srvPicksTheLowestPriorityByWeight() throws Exception {
+        stub.srv(SRV_PREFIX + "play.example.com", 300, 10, 3, 25566, "a.example.com");
+        stub.srv(SRV_PREFIX + "play.example.com", 300, 10, 1, 25567, "b.example.com");
+        stub.srv(SRV_PREFIX + "play.example.com", 300, 20, 100, 25568, "c.example.com");
+        resolver = resolver(4096, 60);
+
+        Map<String, Integer> picked = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            RemoteServer target = resolver.resolve(server("play.example.com")).get(5, TimeUnit.SECONDS);
+            picked.merge(target.address() + ":" + target.port(), 1, Integer::sum);
+        }
+
+        assertEquals(1, stub.queries(SRV_PREFIX + "play.example.com", DnsCodec.TYPE_SRV), "The answer should be cached");
+        assertEquals(2, picked.size(), "Only the lowest priority should be used: " + picked);
+        int a = picked.getOrDefault("a.example.com:25566", 0);
+        assertTrue(a > 240 && a < 360, "The weights should pick a about three times as often as b: " + picked);
+    }
+
+    @Test
+    void srvFallsBackToTheServerAddress() throws Exception {
+        stub.srv(SRV_PREFIX + "closed.example.com", 300, 0, 0, 0, ".");
+        resolver = resolver(4096, 60);
+
+        RemoteServer closed = resolver.resolve(server("closed.example.com")).get(5, TimeUnit.SECONDS);
+        assertEquals("closed.example.com", closed.address());
+        assertEquals(25565, closed.port());
+
+        RemoteServer missing = resolver.resolve(server("missing.example.com")).get(5, TimeUnit.SECONDS);
+        assertEquals("missing.example.com", missing.address(), "Servers without an SRV record should connect to their own address");
+        assertEquals(25565, missing.port());
+    }
+
+    @Test
+    void nxdomainIsCachedForTheSoaTtl() throws Exception {
+        stub.soaTtl(1);
+        resolver = resolver(4096, 60);
+
+        assertNull(resolve("missing.example.com"));
+        assertNull(resolve("missing.example.com"));
+        assertEquals(1, stub.queries("missing.example.com", DnsCodec.TYPE_A));
+        assertEquals(2, resolver.negativeHits(), "Both the A and AAAA answers should come from the cache");
+
+        Thread.sleep(1200);
+        assertNull(resolve("missing.example.com"));
+        assertEquals(2, stub.queries("missing.example.com", DnsCodec.TYPE_A), "The negative answer should expire with the SOA");
+    }
+
+    @Test
+    void negativeTtlCapsTheSoaTtl() throws Exception {
+        stub.soaTtl(3600);
+        resolver = resolver(4096, 1);
+
+        assertNull(resolve("missing.example.com"));
+        Thread.sleep(1200);
+        assertNull(resolve("missing.example.com"));
+        assertEquals(2, stub.queries("missing.example.com", DnsCodec.TYPE_A));
+    }
+
+    @Test
+    void answersExpireAfterTheirTtl() throws Exception {
+        stub.a("short.example.com", 1, "10.0.0.1");
+        resolver = resolver(4096, 60);
+
+        assertEquals(new InetSocketAddress("10.0.0.1", 25565), resolve("short.example.com"));
+        resolve("short.example.com");
+        assertEquals(1, stub.queries("short.example.com", DnsCodec.TYPE_A));
+
+        Thread.sleep(1200);
+        assertEquals(new InetSocketAddress("10.0.0.1", 25565), resolve("short.example.com"));
+        assertEquals(2, stub.queries("short.example.com", DnsCodec.TYPE_A));
+        assertEquals(2, resolver.misses());
+    }
+
+    @Test
+    void answersAreRefreshedBeforeTheyExpire() throws Exception {
+        stub.a("popular.example.com", 2, "10.0.0.2");
+        resolver = resolver(4096, 60);
+
+        long start = System.nanoTime();
+        resolve("popular.example.com");
+
+        // Past the refresh point but before the answer expires
+        sleepUntil(start, 1700);
+        assertEquals(new InetSocketAddress("10.0.0.2", 25565), resolve("popular.example.com"));
+        assertEquals(1, resolver.prefetches());
+        waitFor(() -> stub.queries("popular.example.com", DnsCodec.TYPE_A) == 2);
+
+        // The refreshed answer is used after the first one would have expired
+        sleepUntil(start, 2500);
+        resolve("popular.example.com");
+        assertEquals(1, resolver.misses(), "Only the first lookup should have waited on the network");
+        assertEquals(2, stub.queries("popular.example.com", DnsCodec.TYPE_A));
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() throws Exception {
+        stub.a("busy.example.com", 300, "10.0.0.3");
+        stub.delay(200);
+        resolver = resolver(4096, 60);
+
+        List<CompletableFuture<InetSocketAddress>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(resolver.resolveAddress("busy.example.com", 25565, false));
+        }
+
+        for (CompletableFuture<InetSocketAddress> future : futures) {
+            assertEquals(new InetSocketAddress("10.0.0.3", 25565), future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stub.queries("busy.example.com", DnsCodec.TYPE_A));
+        assertEquals(1, resolver.lookups());
+    }
+
+    @Test
+    void leastRecentlyUsedAnswersAreEvicted() throws Exception {
+        stub.a("one.example.com", 300, "10.0.0.4");
+        stub.a("two.example.com", 300, "10.0.0.5");
+        stub.a("three.example.com", 300, "10.0.0.6");
+        resolver = resolver(2, 60);
+
+        resolve("one.example.com");
+        resolve("two.example.com");
+        resolve("one.example.com");
+        resolve("three.example.com");
+        assertEquals(2, resolver.size());
+        assertEquals(1, resolver.evictions());
+
+        resolve("one.example.com");
+        assertEquals(1, stub.queries("one.example.com", DnsCodec.TYPE_A), "Recently used answers should stay cached");
+        resolve("two.example.com");
+        assertEquals(2, stub.queries("two.example.com", DnsCodec.TYPE_A), "The least recently used answer should be evicted");
+    }
+
+    private DnsResolver resolver(int maxEntries, int negativeTtl) {
+        DnsSection config = new DnsSection(true, List.of(), 1000, maxEntries, 0, 3600, negativeTtl);
+        return new DnsResolver(config, List.of(stub.address()));
+    }
+
+    private InetSocketAddress resolve(String host) throws Exception {
+        return resolver.resolveAddress(host, 25565, false).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Server server(String address) {
+        return new Server(address, 25565, true, false, null, null, ServerCategory.CUSTOM);
+    }
+
+    private static void sleepUntil(long start, long millis) throws InterruptedException {
+        long remaining = millis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (remaining > 0) {
+            Thread.sleep(remaining);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.DnsServerSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DnsResponderTest {
+    private static final int CLASS_ANY = 255;
+
+    private StubDnsServer upstream;
+    private DnsResponder responder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new TestExtension(null);
+        upstream = new StubDnsServer();
+        upstream.a("other.example.com", 300, "10.0.0.9");
+
+        DnsServerSection config = new DnsServerSection(true, null, 0, 60, "127.0.0.1:" + upstream.address().getPort(),
+            List.of("10.0.0.1"), List.of("featured.example.com"));
+        responder = new DnsResponder(config, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        responder.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        responder.close();
+        upstream.close();
+    }
+
+    @Test
+    void featuredDomainsAreAnswered() throws Exception {
+        DnsResponse response = query("featured.example.com", DnsCodec.TYPE_A, DnsCodec.CLASS_IN);
+        assertEquals(List.of(InetAddress.getByName("10.0.0.1")), response.addresses());
+        assertEquals(60, response.ttl());
+
+        response = query("featured.example.com", DnsCodec.TYPE_A, CLASS_ANY);
+        assertEquals(List.of(InetAddress.getByName("10.0.0.1")), response.addresses(), "Queries for any class should be answered");
+
+        assertEquals(DnsCodec.RCODE_NAME_ERROR, query("www.featured.example.com", DnsCodec.TYPE_A, DnsCodec.CLASS_IN).rcode());
+        assertEquals(0, upstream.queries("featured.example.com", DnsCodec.TYPE_A));
+    }
+
+    @Test
+    void otherDomainsAreForwarded() throws Exception {
+        for (int i = 0; i < 64; i++) {
+            DnsResponse response = query("other.example.com", DnsCodec.TYPE_A, DnsCodec.CLASS_IN);
+            assertEquals(List.of(InetAddress.getByName("10.0.0.9")), response.addresses());
+        }
+
+        assertEquals(64, upstream.queries("other.example.com", DnsCodec.TYPE_A));
+        assertEquals(64, responder.forwarded());
+        assertTrue(upstream.sourcePorts().size() > 1, "Forwarded queries should be spread over several source ports");
+    }
+
+    private DnsResponse query(String name, int type, int questionClass) throws Exception {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(2000);
+
+            int id = 0x1234;
+            ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_UDP_LENGTH);
+            DnsCodec.writeQuery(buffer, id, name, type);
+            buffer.putShort(buffer.position() - 2, (short) questionClass);
+            socket.send(new DatagramPacket(buffer.array(), buffer.position(), responder.localAddress()));
+
+            byte[] receive = new byte[DnsCodec.MAX_UDP_LENGTH];
+            DatagramPacket packet = new DatagramPacket(receive, receive.length);
+            socket.receive(packet);
+            return DnsCodec.readResponse(ByteBuffer.wrap(receive, 0, packet.getLength()), id, name, type);
+        }
+    }
+}
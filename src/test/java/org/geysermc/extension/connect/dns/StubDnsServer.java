@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.dns;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for a recursive resolver that answers queries from records set up by the test
+ * and answers NXDOMAIN with an SOA record for everything else
+ */
+class StubDnsServer implements AutoCloseable {
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int FLAG_RECURSION = 0x0180;
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+    private final Map<String, List<Answer>> answers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+    private final Set<Integer> sourcePorts = ConcurrentHashMap.newKeySet();
+    private volatile long soaTtl = 300;
+    private volatile long delay;
+
+    StubDnsServer() throws IOException {
+        this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.thread = new Thread(this::run, "Stub DNS server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Answer A queries for a name
+     */
+    void a(String name, long ttl, String address) throws IOException {
+        byte[] bytes = InetAddress.getByName(address).getAddress();
+        add(name, DnsCodec.TYPE_A, new Answer(DnsCodec.TYPE_A, ttl, buffer -> buffer.put(bytes)));
+    }
+
+    /**
+     * Answer SRV queries for a name, a target of . means the service isn't available
+     */
+    void srv(String name, long ttl, int priority, int weight, int port, String target) {
+        add(name, DnsCodec.TYPE_SRV, new Answer(DnsCodec.TYPE_SRV, ttl, buffer -> {
+            buffer.putShort((short) priority);
+            buffer.putShort((short) weight);
+            buffer.putShort((short) port);
+            DnsCodec.writeName(buffer, target.equals(".") ? "" : target);
+        }));
+    }
+
+    /**
+     * @param soaTtl The minimum field of the SOA record sent with NXDOMAIN answers
+     */
+    void soaTtl(long soaTtl) {
+        this.soaTtl = soaTtl;
+    }
+
+    /**
+     * @param delay How long in milliseconds to wait before answering
+     */
+    void delay(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * @return How many queries have been received for a name and type
+     */
+    int queries(String name, int type) {
+        AtomicInteger count = queries.get(key(name, type));
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * @return The ports queries have been sent from
+     */
+    Set<Integer> sourcePorts() {
+        return sourcePorts;
+    }
+
+    InetSocketAddress address() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    private void add(String name, int type, Answer answer) {
+        answers.computeIfAbsent(key(name, type), key -> new CopyOnWriteArrayList<>()).add(answer);
+    }
+
+    private void run() {
+        byte[] receive = new byte[DnsCodec.MAX_UDP_LENGTH];
+        while (!socket.isClosed()) {
+            try {
+                DatagramPacket packet = new DatagramPacket(receive, receive.length);
+                socket.receive(packet);
+
+                ByteBuffer query = ByteBuffer.wrap(receive, 0, packet.getLength());
+                int id = query.getShort() & 0xFFFF;
+                query.position(DnsCodec.HEADER_LENGTH);
+                String name = DnsCodec.readName(query);
+                int type = query.getShort() & 0xFFFF;
+                queries.computeIfAbsent(key(name, type), key -> new AtomicInteger()).incrementAndGet();
+                sourcePorts.add(packet.getPort());
+
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+
+                byte[] response = respond(id, name, type);
+                socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException | InterruptedException e) {
+                if (!socket.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private byte[] respond(int id, String name, int type) {
+        List<Answer> records = answers.getOrDefault(key(name, type), List.of());
+        // Only names without any records at all are NXDOMAIN, otherwise the answer is just empty
+        boolean exists = answers.keySet().stream().anyMatch(key -> key.startsWith(name + "/"));
+
+        ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_UDP_LENGTH);
+        buffer.putShort((short) id);
+        buffer.putShort((short) (FLAG_RESPONSE | FLAG_RECURSION | (exists ? DnsCodec.RCODE_NO_ERROR : DnsCodec.RCODE_NAME_ERROR)));
+        buffer.putShort((short) 1);
+        buffer.putShort((short) records.size());
+        buffer.putShort((short) (records.isEmpty() ? 1 : 0));
+        buffer.putShort((short) 0);
+        DnsCodec.writeName(buffer, name);
+        buffer.putShort((short) type);
+        buffer.putShort((short) DnsCodec.CLASS_IN);
+
+        for (Answer answer : records) {
+            DnsCodec.writeName(buffer, name);
+            buffer.putShort((short) answer.type());
+            buffer.putShort((short) DnsCodec.CLASS_IN);
+            buffer.putInt((int) answer.ttl());
+            writeData(buffer, answer.data());
+        }
+
+        if (records.isEmpty()) {
+            DnsCodec.writeName(buffer, "example.com");
+            buffer.putShort((short) DnsCodec.TYPE_SOA);
+            buffer.putShort((short) DnsCodec.CLASS_IN);
+            buffer.putInt((int) soaTtl);
+            writeData(buffer, data -> {
+                DnsCodec.writeName(data, "ns.example.com");
+                DnsCodec.writeName(data, "hostmaster.example.com");
+                data.putInt(1);
+                data.putInt(3600);
+                data.putInt(600);
+                data.putInt(86400);
+                data.putInt((int) soaTtl);
+            });
+        }
+
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    private static void writeData(ByteBuffer buffer, Data data) {
+        int lengthPosition = buffer.position();
+        buffer.putShort((short) 0);
+        data.write(buffer);
+        buffer.putShort(lengthPosition, (short) (buffer.position() - lengthPosition - 2));
+    }
+
+    private static String key(String name, int type) {
+        return name.toLowerCase(Locale.ROOT) + "/" + type;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        socket.close();
+        thread.join(1000);
+    }
+
+    private interface Data {
+        void write(ByteBuffer buffer);
+    }
+
+    private record Answer(int type, long ttl, Data data) {
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local stand-in for a Bedrock server that answers RakNet unconnected pings with a configurable player count
+ */
+class StandInBedrockServer implements AutoCloseable {
+    private static final byte UNCONNECTED_PING = 0x01;
+    private static final byte UNCONNECTED_PONG = 0x1c;
+    private static final int MAGIC_LENGTH = 16;
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+    private final AtomicInteger players = new AtomicInteger();
+    private final LongAdder pings = new LongAdder();
+    private volatile boolean changePlayers;
+
+    StandInBedrockServer(InetAddress address) throws IOException {
+        this.socket = new DatagramSocket(new InetSocketAddress(address, 0));
+        this.thread = new Thread(this::run, "Stand-in Bedrock server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @param players The player count to report
+     */
+    void players(int players) {
+        this.players.set(players);
+    }
+
+    /**
+     * @param changePlayers If the player count should go up with every ping, like a busy server
+     */
+    void changePlayers(boolean changePlayers) {
+        this.changePlayers = changePlayers;
+    }
+
+    long pings() {
+        return pings.sum();
+    }
+
+    InetSocketAddress address() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    private void run() {
+        byte[] buffer = new byte[1500];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                ByteBuffer ping = ByteBuffer.wrap(buffer, 0, packet.getLength());
+                if (ping.get() != UNCONNECTED_PING) continue;
+                long pingTime = ping.getLong();
+                byte[] magic = new byte[MAGIC_LENGTH];
+                ping.get(magic);
+                pings.increment();
+
+                int online = changePlayers ? players.incrementAndGet() : players.get();
+                byte[] motd = ("MCPE;Stand-in;800;1.21.100;" + online + ";100;1;GeyserConnect;Survival;1;" + socket.getLocalPort() + ";").getBytes(StandardCharsets.UTF_8);
+
+                ByteBuffer pong = ByteBuffer.allocate(1 + 8 + 8 + MAGIC_LENGTH + 2 + motd.length);
+                pong.put(UNCONNECTED_PONG);
+                pong.putLong(pingTime);
+                pong.putLong(1234);
+                pong.put(magic);
+                pong.putShort((short) motd.length);
+                pong.put(motd);
+                socket.send(new DatagramPacket(pong.array(), pong.capacity(), packet.getSocketAddress()));
+            } catch (IOException | RuntimeException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        socket.close();
+        thread.join(1000);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A local stand-in for a Java server that answers server list pings with a fixed status
+ */
+class StandInJavaServer implements AutoCloseable {
+    private final ServerSocket socket;
+    private final Thread thread;
+    private final String status;
+
+    StandInJavaServer(InetAddress address, int players, int maxPlayers, String version) throws IOException {
+        this.socket = new ServerSocket(0, 50, address);
+        this.status = "{\"version\":{\"name\":\"" + version + "\",\"protocol\":772},\"players\":{\"max\":" + maxPlayers + ",\"online\":" + players + "},\"description\":{\"text\":\"Stand-in\"}}";
+        this.thread = new Thread(this::run, "Stand-in Java server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    InetSocketAddress address() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    private void run() {
+        while (!socket.isClosed()) {
+            try (Socket client = socket.accept()) {
+                client.setSoTimeout(1000);
+                DataInputStream in = new DataInputStream(client.getInputStream());
+                DataOutputStream out = new DataOutputStream(client.getOutputStream());
+
+                // Handshake then the status request
+                in.readFully(new byte[readVarInt(in)]);
+                in.readFully(new byte[readVarInt(in)]);
+
+                ByteArrayOutputStream response = new ByteArrayOutputStream();
+                DataOutputStream responseOut = new DataOutputStream(response);
+                byte[] json = status.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(responseOut, 0x00);
+                writeVarInt(responseOut, json.length);
+                responseOut.write(json);
+                writeVarInt(out, response.size());
+                response.writeTo(out);
+                out.flush();
+
+                // Echo the ping
+                int length = readVarInt(in);
+                byte[] ping = new byte[length];
+                in.readFully(ping);
+                writeVarInt(out, length);
+                out.write(ping);
+                out.flush();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        socket.close();
+        thread.join(1000);
+    }
+}
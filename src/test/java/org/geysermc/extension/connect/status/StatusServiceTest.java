@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.status;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.StatusSection;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.extension.connect.utils.TimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pings stand-in servers on loopback to check the statuses and when the menus are told to rebuild their buttons
+ */
+public class StatusServiceTest {
+    // The shortest interval the config allows, pings are spread over it
+    private static final StatusSection CONFIG = new StatusSection(true, 1, 500, 16);
+
+    private final List<AutoCloseable> standIns = new ArrayList<>();
+    private TimingWheel timingWheel;
+    private StatusService statusService;
+
+    @BeforeEach
+    void setUp() {
+        new TestExtension(null);
+        timingWheel = new TimingWheel("Test Timer", 50, TimeUnit.MILLISECONDS, 64);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (statusService != null) {
+            statusService.stop();
+        }
+        timingWheel.close();
+        for (AutoCloseable standIn : standIns) {
+            standIn.close();
+        }
+    }
+
+    @Test
+    void reportsStandInStatuses() throws Exception {
+        StandInBedrockServer bedrock = bedrockServer();
+        bedrock.players(12);
+        StandInJavaServer java = new StandInJavaServer(InetAddress.getLoopbackAddress(), 3, 20, "Paper 1.21.10");
+        standIns.add(java);
+
+        Server bedrockServer = server(bedrock.address(), true);
+        Server javaServer = server(java.address(), false);
+        start(List.of(bedrockServer, javaServer));
+
+        await(() -> statusService.status(bedrockServer) != null && statusService.status(javaServer) != null, 3000);
+
+        ServerStatus bedrockStatus = statusService.status(bedrockServer);
+        assertTrue(bedrockStatus.online());
+        assertEquals(12, bedrockStatus.players());
+        assertEquals(100, bedrockStatus.maxPlayers());
+        assertEquals("1.21.100", bedrockStatus.version());
+
+        ServerStatus javaStatus = statusService.status(javaServer);
+        assertTrue(javaStatus.online());
+        assertEquals(3, javaStatus.players());
+        assertEquals(20, javaStatus.maxPlayers());
+        assertEquals("Paper 1.21.10", javaStatus.version());
+    }
+
+    @Test
+    void busyServersChangeTheVersionOncePerSweep() throws Exception {
+        List<Server> servers = new ArrayList<>();
+        List<StandInBedrockServer> bedrockServers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            StandInBedrockServer bedrock = bedrockServer();
+            bedrock.changePlayers(true);
+            bedrockServers.add(bedrock);
+            servers.add(server(bedrock.address(), true));
+        }
+        start(servers);
+        await(() -> servers.stream().allMatch(server -> statusService.status(server) != null), 3000);
+
+        long pingsBefore = bedrockServers.stream().mapToLong(StandInBedrockServer::pings).sum();
+        long versionBefore = statusService.version();
+        Thread.sleep(3200);
+        long pings = bedrockServers.stream().mapToLong(StandInBedrockServer::pings).sum() - pingsBefore;
+        long changes = statusService.version() - versionBefore;
+
+        // Every ping reports a new player count, but the buttons only need rebuilding once a sweep
+        assertTrue(pings >= 16, "Expected the servers to be pinged every sweep but there were " + pings + " pings");
+        assertTrue(changes >= 1 && changes <= 4, "Expected one change a sweep but there were " + changes + " for " + pings + " pings");
+    }
+
+    @Test
+    void latencyJitterIsNotAChange() {
+        ServerStatus status = new ServerStatus(true, 5, 100, 42, "1.21.100");
+
+        assertFalse(status.differsFrom(new ServerStatus(true, 5, 100, 47, "1.21.100")));
+        assertFalse(status.differsFrom(new ServerStatus(true, 5, 100, 40, "1.21.100")));
+        assertFalse(new ServerStatus(true, 5, 100, 320, null).differsFrom(new ServerStatus(true, 5, 100, 345, null)));
+
+        assertTrue(status.differsFrom(new ServerStatus(true, 5, 100, 180, "1.21.100")));
+        assertTrue(status.differsFrom(new ServerStatus(true, 6, 100, 42, "1.21.100")));
+        assertTrue(status.differsFrom(new ServerStatus(true, 5, 100, 42, "1.21.101")));
+        assertTrue(status.differsFrom(ServerStatus.OFFLINE));
+    }
+
+    @Test
+    void serversGoingDownChangeTheVersionStraightAway() throws Exception {
+        StandInBedrockServer bedrock = bedrockServer();
+        Server server = server(bedrock.address(), true);
+        start(List.of(server));
+        await(() -> statusService.status(server) != null, 3000);
+
+        long versionBefore = statusService.version();
+        bedrock.close();
+        await(() -> !statusService.status(server).online(), 3000);
+
+        // Checked before the next sweep could have batched it
+        assertNotEquals(versionBefore, statusService.version(), "Going offline should change the version as soon as it is seen");
+        assertFalse(statusService.status(server).online());
+    }
+
+    private StandInBedrockServer bedrockServer() throws Exception {
+        StandInBedrockServer bedrock = new StandInBedrockServer(InetAddress.getLoopbackAddress());
+        standIns.add(bedrock);
+        return bedrock;
+    }
+
+    private void start(List<Server> servers) {
+        statusService = new StatusService(CONFIG, servers, timingWheel, null);
+        statusService.start();
+    }
+
+    private static Server server(InetSocketAddress address, boolean bedrock) {
+        return new Server(address.getHostString(), address.getPort(), false, bedrock, null, null, ServerCategory.OFFICIAL);
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting after " + timeoutMillis + "ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.api.connection.Connection;
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.Config;
+import org.geysermc.extension.connect.config.CustomServersSection;
+import org.geysermc.extension.connect.config.ServerCacheSection;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.geysermc.extension.connect.utils.ServerCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactStorageManagerTest {
+    private static final Server OLD = new Server("old.example.com", 25565, true, false, null, null, ServerCategory.CUSTOM);
+    private static final Server NEW = new Server("new.example.com", 19132, true, true, "New", null, ServerCategory.CUSTOM);
+
+    private Path dataFolder;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dataFolder = Files.createTempDirectory("geyserconnect");
+        file = dataFolder.resolve("players.dat");
+
+        CustomServersSection customServers = new CustomServersSection(true, 10, AbstractStorageManager.StorageType.COMPACT, 60000, 1024, 1, 1, new ServerCacheSection(false, 0, 0, 0), null);
+        new TestExtension(new Config(null, false, false, List.of(), customServers, null, null, null, null, null, null, null, null, null, null), dataFolder);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void latestServersAreReadBackAfterARestart() {
+        CompactStorageManager storage = open();
+        storage.writeServers(Map.of("1", List.of(OLD), "2", List.of(OLD)));
+        storage.writeServers(Map.of("1", List.of(OLD, NEW)));
+        assertEquals(List.of(OLD, NEW), storage.readServers(player("1")));
+        storage.closeStorage();
+
+        storage = open();
+        assertEquals(List.of(OLD, NEW), storage.readServers(player("1")));
+        assertEquals(List.of(OLD), storage.readServers(player("2")));
+        assertEquals(List.of(), storage.readServers(player("3")));
+        storage.closeStorage();
+    }
+
+    @Test
+    void tornWriteIsDropped() throws IOException {
+        CompactStorageManager storage = open();
+        storage.writeServers(Map.of("1", List.of(OLD)));
+        long complete = Files.size(file);
+        storage.writeServers(Map.of("2", List.of(NEW)));
+        storage.closeStorage();
+
+        // Lose the end of the last record, as if we died part way through writing it
+        truncate(Files.size(file) - 5);
+
+        storage = open();
+        assertEquals(complete, Files.size(file));
+        assertEquals(List.of(OLD), storage.readServers(player("1")));
+        assertEquals(List.of(), storage.readServers(player("2")));
+
+        // New records go after the last good one
+        storage.writeServers(Map.of("2", List.of(NEW)));
+        storage.closeStorage();
+
+        storage = open();
+        assertEquals(List.of(OLD), storage.readServers(player("1")));
+        assertEquals(List.of(NEW), storage.readServers(player("2")));
+        storage.closeStorage();
+    }
+
+    @Test
+    void corruptRecordIsDroppedWithEverythingAfterIt() throws IOException {
+        CompactStorageManager storage = open();
+        storage.writeServers(Map.of("1", List.of(OLD)));
+        long first = Files.size(file);
+        storage.writeServers(Map.of("2", List.of(OLD)));
+        storage.writeServers(Map.of("3", List.of(OLD)));
+        storage.closeStorage();
+
+        // Flip a bit in the payload of the second record so its checksum no longer matches
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(first + 20);
+            int value = raf.read();
+            raf.seek(first + 20);
+            raf.write(value ^ 1);
+        }
+
+        storage = open();
+        assertEquals(first, Files.size(file));
+        assertEquals(List.of(OLD), storage.readServers(player("1")));
+        assertEquals(List.of(), storage.readServers(player("2")));
+        assertEquals(List.of(), storage.readServers(player("3")));
+        storage.closeStorage();
+    }
+
+    @Test
+    void compactionKeepsOnlyTheLatestRecords() throws IOException {
+        CompactStorageManager storage = open();
+        for (int i = 0; i < 10; i++) {
+            storage.writeServers(Map.of("1", List.of(OLD)));
+        }
+        storage.writeServers(Map.of("1", List.of(NEW), "2", List.of(OLD)));
+        long before = Files.size(file);
+
+        storage.compact();
+        assertTrue(Files.size(file) < before);
+        assertEquals(List.of(NEW), storage.readServers(player("1")));
+        assertEquals(List.of(OLD), storage.readServers(player("2")));
+
+        // The log can still be written to and reloaded afterwards
+        storage.writeServers(Map.of("3", List.of(NEW)));
+        storage.closeStorage();
+
+        storage = open();
+        assertEquals(List.of(NEW), storage.readServers(player("1")));
+        assertEquals(List.of(OLD), storage.readServers(player("2")));
+        assertEquals(List.of(NEW), storage.readServers(player("3")));
+        storage.closeStorage();
+    }
+
+    @Test
+    void jsonPlayersAreImported() throws IOException {
+        writeJson("1", List.of(OLD));
+        writeJson("2", List.of(OLD, NEW));
+
+        CompactStorageManager storage = open();
+        assertEquals(List.of(OLD), storage.readServers(player("1")));
+        assertEquals(List.of(OLD, NEW), storage.readServers(player("2")));
+        storage.closeStorage();
+
+        // Once finished the json files are left alone
+        writeJson("3", List.of(OLD));
+        storage = open();
+        assertEquals(List.of(), storage.readServers(player("3")));
+        storage.closeStorage();
+    }
+
+    @Test
+    void interruptedImportIsFinished() throws IOException {
+        // The first batch made it in before we were stopped, and that player has changed their servers since
+        CompactStorageManager storage = open();
+        storage.writeServers(Map.of("1", List.of(NEW)));
+        storage.closeStorage();
+
+        writeJson("1", List.of(OLD));
+        writeJson("2", List.of(OLD));
+        writeJson("3", List.of(OLD, NEW));
+
+        storage = open();
+        assertEquals(List.of(NEW), storage.readServers(player("1")));
+        assertEquals(List.of(OLD), storage.readServers(player("2")));
+        assertEquals(List.of(OLD, NEW), storage.readServers(player("3")));
+        storage.closeStorage();
+    }
+
+    private CompactStorageManager open() {
+        CompactStorageManager storage = new CompactStorageManager();
+        storage.setupStorage();
+        return storage;
+    }
+
+    private void truncate(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    private void writeJson(String xuid, List<Server> servers) throws IOException {
+        Path players = Files.createDirectories(dataFolder.resolve("players"));
+        try (Writer writer = Files.newBufferedWriter(players.resolve(xuid + ".json"))) {
+            ServerCodec.writeJson(writer, servers);
+        }
+    }
+
+    private static Connection player(String xuid) {
+        return (Connection) Proxy.newProxyInstance(CompactStorageManagerTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) ->
+            method.getName().equals("xuid") ? xuid : null);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        new TestExtension(null);
+        pool = new ConnectionPool("test", 2, ConnectionPoolTest::connection);
+    }
+
+    @Test
+    void connectionsAreReused() throws Exception {
+        ConnectionPool.PooledConnection first = pool.acquire();
+        first.close();
+
+        try (ConnectionPool.PooledConnection second = pool.acquire()) {
+            assertSame(first, second);
+        }
+        assertEquals(1, pool.opened());
+        assertEquals(0, pool.active());
+    }
+
+    @Test
+    void closingTwiceOnlyReleasesOnce() throws Exception {
+        ConnectionPool.PooledConnection connection = pool.acquire();
+        connection.close();
+        connection.close();
+        assertEquals(0, pool.active());
+        assertEquals(1, pool.open());
+
+        // Both would get the same connection if it had gone back into the idle list twice
+        try (ConnectionPool.PooledConnection first = pool.acquire();
+             ConnectionPool.PooledConnection second = pool.acquire()) {
+            assertNotSame(first, second);
+            assertEquals(2, pool.active());
+        }
+        assertEquals(0, pool.active());
+    }
+
+    @Test
+    void brokenConnectionsAreNotReused() throws Exception {
+        ConnectionPool.PooledConnection first = pool.acquire();
+        first.invalidate();
+        first.close();
+        assertEquals(0, pool.open());
+
+        try (ConnectionPool.PooledConnection second = pool.acquire()) {
+            assertNotSame(first, second);
+        }
+    }
+
+    private static Connection connection() {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionPoolTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    closed.set(true);
+                    return null;
+                case "isClosed":
+                    return closed.get();
+                case "isValid":
+                    return !closed.get();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.api.connection.Connection;
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.ClusterSection;
+import org.geysermc.extension.connect.config.Config;
+import org.geysermc.extension.connect.config.CustomServersSection;
+import org.geysermc.extension.connect.config.ServerCacheSection;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServerListCacheTest {
+    private static final Server OLD = new Server("old.example.com", 25565, true, false, null, null, ServerCategory.CUSTOM);
+    private static final Server NEW = new Server("new.example.com", 25565, true, false, null, null, ServerCategory.CUSTOM);
+
+    private final Map<String, List<Server>> database = new ConcurrentHashMap<>();
+    private final Connection player = player("1");
+
+    @Test
+    void rejoiningPlayersAreServedFromTheCache() {
+        install(AbstractStorageManager.StorageType.SQLITE, false);
+        SharedStorageManager node = new SharedStorageManager(database);
+        try {
+            node.saveServers(player, List.of(OLD));
+            node.writeQueue().flush();
+
+            // Only something outside GeyserConnect could change local storage
+            database.put("1", List.of(NEW));
+            assertEquals(List.of(OLD), node.loadServers(player));
+            assertEquals(1, node.cache.hits());
+        } finally {
+            node.closeStorage();
+        }
+    }
+
+    @Test
+    void sharedStorageIsNotCached() {
+        install(AbstractStorageManager.StorageType.MYSQL, false);
+        assertChangesOnAnotherNodeAreSeen();
+    }
+
+    @Test
+    void clusteredStorageIsNotCached() {
+        install(AbstractStorageManager.StorageType.SQLITE, true);
+        assertChangesOnAnotherNodeAreSeen();
+    }
+
+    private void assertChangesOnAnotherNodeAreSeen() {
+        SharedStorageManager a = new SharedStorageManager(database);
+        SharedStorageManager b = new SharedStorageManager(database);
+        try {
+            // The player leaves node A without changing anything
+            a.saveServers(player, List.of(OLD));
+            a.writeQueue().flush();
+            a.releaseServers(player, a.loadServers(player));
+
+            // Then changes their servers on node B
+            assertEquals(List.of(OLD), b.loadServers(player));
+            b.saveServers(player, List.of(OLD, NEW));
+            b.writeQueue().flush();
+
+            // And comes back to node A, which must not overwrite B's save with what it had
+            List<Server> servers = a.loadServers(player);
+            assertEquals(List.of(OLD, NEW), servers);
+            a.saveServers(player, servers);
+            a.writeQueue().flush();
+            assertEquals(List.of(OLD, NEW), database.get("1"));
+            assertEquals(0, a.cache.hits());
+        } finally {
+            a.closeStorage();
+            b.closeStorage();
+        }
+    }
+
+    private static void install(AbstractStorageManager.StorageType storageType, boolean clustered) {
+        CustomServersSection customServers = new CustomServersSection(true, 10, storageType, 60000, 1024, 1, 1, new ServerCacheSection(true, 0, 0, 0), null);
+        ClusterSection cluster = new ClusterSection(clustered, null, null, 0, null, null, 0, null, null, 0, 0, 0, 0, 0);
+        new TestExtension(new Config(null, false, false, List.of(), customServers, null, null, null, null, null, null, null, null, cluster, null));
+    }
+
+    private static Connection player(String xuid) {
+        return (Connection) Proxy.newProxyInstance(ServerListCacheTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) ->
+            method.getName().equals("xuid") ? xuid : null);
+    }
+
+    /**
+     * Storage backed by a map shared between instances, like nodes using the same database
+     */
+    private static class SharedStorageManager extends AbstractStorageManager {
+        private final Map<String, List<Server>> database;
+
+        private SharedStorageManager(Map<String, List<Server>> database) {
+            this.database = database;
+        }
+
+        @Override
+        protected List<Server> readServers(Connection session) {
+            return new ArrayList<>(database.getOrDefault(session.xuid(), List.of()));
+        }
+
+        @Override
+        protected void writeServers(Map<String, List<Server>> batch) {
+            database.putAll(batch);
+        }
+    }
+}
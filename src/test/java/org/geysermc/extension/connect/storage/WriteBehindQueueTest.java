@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.storage;
+
+import org.geysermc.extension.connect.TestExtension;
+import org.geysermc.extension.connect.config.Config;
+import org.geysermc.extension.connect.config.CustomServersSection;
+import org.geysermc.extension.connect.config.ServerCacheSection;
+import org.geysermc.extension.connect.utils.Server;
+import org.geysermc.extension.connect.utils.ServerCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private static final List<Server> SERVERS = List.of(new Server("play.example.com", 25565, true, false, null, null, ServerCategory.CUSTOM));
+
+    private RecordingStorageManager storage;
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        CustomServersSection customServers = new CustomServersSection(true, 10, null, 60000, 1024, 1, 1, new ServerCacheSection(false, 0, 0, 0), null);
+        new TestExtension(new Config(null, false, false, List.of(), customServers, null, null, null, null, null, null, null, null, null, null));
+        storage = new RecordingStorageManager();
+        queue = storage.writeQueue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.closeStorage();
+    }
+
+    @Test
+    void savesAreCoalescedUntilTheyAreFlushed() {
+        queue.enqueue("1", List.of());
+        queue.enqueue("1", SERVERS);
+        queue.enqueue("2", SERVERS);
+        assertEquals(2, queue.depth());
+        assertTrue(storage.written.isEmpty());
+
+        queue.flush();
+        assertEquals(Map.of("1", SERVERS, "2", SERVERS), storage.written);
+        assertEquals(1, queue.coalesced());
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void failedBatchesAreRetried() {
+        storage.failures.set(1);
+        queue.enqueue("1", SERVERS);
+
+        queue.flush();
+        assertTrue(storage.written.isEmpty());
+        assertEquals(1, queue.retries());
+        assertEquals(SERVERS, queue.pending("1"));
+
+        queue.flush();
+        assertEquals(Map.of("1", SERVERS), storage.written);
+    }
+
+    @Test
+    void fullQueueIsFlushedOnTheWriterThread() throws InterruptedException {
+        WriteBehindQueue queue = new WriteBehindQueue(storage, 1, 60000);
+        try {
+            queue.enqueue("1", SERVERS);
+            queue.enqueue("2", SERVERS);
+            assertEquals(1, queue.overflows());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (storage.written.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(Map.of("1", SERVERS, "2", SERVERS), storage.written);
+            assertNotSame(Thread.currentThread(), storage.writer, "Saving shouldn't write on the caller");
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    void savesAfterClosingAreRejected() {
+        queue.enqueue("1", SERVERS);
+        storage.closeStorage();
+        assertEquals(Map.of("1", SERVERS), storage.written, "Queued saves should be written when closing");
+
+        queue.enqueue("2", SERVERS);
+        assertEquals(1, queue.rejected());
+        assertEquals(0, queue.depth());
+        assertEquals(1, storage.writes.get(), "Nothing should be written once storage is closed");
+    }
+
+    private static class RecordingStorageManager extends AbstractStorageManager {
+        private final Map<String, List<Server>> written = new ConcurrentHashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile Thread writer;
+
+        @Override
+        protected void writeServers(Map<String, List<Server>> batch) {
+            if (failures.getAndDecrement() > 0) {
+                saveFailed(batch);
+                return;
+            }
+            writes.incrementAndGet();
+            writer = Thread.currentThread();
+            written.putAll(batch);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerCodecTest {
+    private static final List<Server> SERVERS = List.of(
+        new Server("play.example.com", 25565, true, false, "Example", null, ServerCategory.CUSTOM),
+        new Server("bedrock.example.com", 19133, false, true, null, "https://example.com/icon.png", ServerCategory.CUSTOM),
+        new Server("\u00fcbung.example.com", 65535, true, true, "\u00dcn\u00efc\u00f6d\u00e9 \uD83D\uDE00 \"quoted\" \\ name", "", ServerCategory.CUSTOM)
+    );
+
+    @Test
+    void jsonRoundTrip() throws IOException {
+        List<Server> servers = List.of(
+            SERVERS.get(0),
+            new Server("official.example.com", 25565, false, false, "Official", null, ServerCategory.OFFICIAL),
+            new Server("geyser.example.com", 19132, true, true, null, null, ServerCategory.GEYSER),
+            new Server("nocategory.example.com", 25565, false, false, null, null, null)
+        );
+        assertEquals(servers, ServerCodec.fromJson(ServerCodec.toJson(servers)));
+        assertEquals(SERVERS, ServerCodec.fromJson(ServerCodec.toJson(SERVERS)));
+    }
+
+    @Test
+    void jsonLeavesOutEmptyFields() {
+        String json = ServerCodec.toJson(List.of(new Server("play.example.com", 25565, false, false, null, null, null)));
+        assertEquals("[{\"address\":\"play.example.com\",\"port\":25565,\"online\":false,\"bedrock\":false}]", json);
+    }
+
+    @Test
+    void readsOldPrettyPrintedJson() throws IOException {
+        // As written by the reflective Gson the storage managers used before
+        String json = """
+            [
+              {
+                "address": "play.example.com",
+                "port": 25565,
+                "online": true,
+                "bedrock": false,
+                "name": "Example",
+                "category": "CUSTOM",
+                "endpoints": []
+              },
+              {
+                "address": "bedrock.example.com",
+                "port": 19133,
+                "online": false,
+                "bedrock": true,
+                "name": null,
+                "imageUrl": "https://example.com/icon.png",
+                "category": "REMOVED_CATEGORY"
+              }
+            ]
+            """;
+
+        List<Server> servers = ServerCodec.fromJson(json);
+        assertEquals(List.of(
+            SERVERS.get(0),
+            new Server("bedrock.example.com", 19133, false, true, null, "https://example.com/icon.png", null)
+        ), servers);
+        assertTrue(ServerCodec.fromJson("null").isEmpty());
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        assertEquals(SERVERS, readBinary(writeBinary(SERVERS)));
+        assertEquals(List.of(), readBinary(writeBinary(List.of())));
+    }
+
+    @Test
+    void binaryStoresEveryServerAsCustom() throws IOException {
+        Server official = new Server("official.example.com", 25565, false, false, "Official", null, ServerCategory.OFFICIAL);
+        assertEquals(List.of(new Server("official.example.com", 25565, false, false, "Official", null, ServerCategory.CUSTOM)), readBinary(writeBinary(List.of(official))));
+    }
+
+    @Test
+    void binaryLeavesOutServersWithoutAnAddress() throws IOException {
+        List<Server> servers = List.of(
+            SERVERS.get(0),
+            new Server(null, 25565, false, false, "No address", null, ServerCategory.CUSTOM),
+            SERVERS.get(1)
+        );
+        assertEquals(List.of(SERVERS.get(0), SERVERS.get(1)), readBinary(writeBinary(servers)));
+    }
+
+    @Test
+    void readsBinaryVersion1() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(1);
+        output.writeInt(SERVERS.size());
+        for (Server server : SERVERS) {
+            output.writeUTF(server.address());
+            output.writeInt(server.port());
+            output.writeBoolean(server.online());
+            output.writeBoolean(server.bedrock());
+            output.writeBoolean(server.name() != null);
+            if (server.name() != null) {
+                output.writeUTF(server.name());
+            }
+            output.writeBoolean(server.imageUrl() != null);
+            if (server.imageUrl() != null) {
+                output.writeUTF(server.imageUrl());
+            }
+        }
+
+        assertEquals(SERVERS, readBinary(bytes.toByteArray()));
+    }
+
+    @Test
+    void unknownBinaryVersionsAreRejected() {
+        assertThrows(IOException.class, () -> readBinary(new byte[]{3, 0}));
+    }
+
+    private static byte[] writeBinary(List<Server> servers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ServerCodec.writeBinary(new DataOutputStream(bytes), servers);
+        return bytes.toByteArray();
+    }
+
+    private static List<Server> readBinary(byte[] bytes) throws IOException {
+        return ServerCodec.readBinary(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
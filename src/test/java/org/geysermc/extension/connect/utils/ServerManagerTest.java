@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019-2026 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/GeyserConnect
+ */
+
+package org.geysermc.extension.connect.utils;
+
+import org.geysermc.api.connection.Connection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers the servers of many simulated players from many threads to check no change is lost
+ */
+public class ServerManagerTest {
+    private static final int PLAYERS = 64;
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5000;
+
+    private final List<String> xuids = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (String xuid : xuids) {
+            ServerManager.unloadServers(xuid);
+        }
+    }
+
+    @Test
+    void concurrentChangesAreNotLost() throws Exception {
+        List<Connection> sessions = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            String xuid = "stress-" + i;
+            xuids.add(xuid);
+            sessions.add(session(xuid));
+            ServerManager.loadServers(xuid, CompletableFuture.completedFuture(List.of()));
+        }
+
+        // What each player should end up with, and how many changes were made to them
+        List<Set<String>> expected = new ArrayList<>();
+        AtomicInteger[] changes = new AtomicInteger[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            expected.add(ConcurrentHashMap.newKeySet());
+            changes[i] = new AtomicInteger();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            // Watch the versions while everything is changing, they must only ever go up
+            Future<?> watcher = executor.submit(() -> {
+                start.await();
+                int[] lastVersions = new int[PLAYERS];
+                while (running.get()) {
+                    for (int i = 0; i < PLAYERS; i++) {
+                        ServerManager.Snapshot snapshot = ServerManager.snapshot(xuids.get(i));
+                        assertTrue(snapshot.version() >= lastVersions[i], "Version went backwards for " + xuids.get(i));
+                        lastVersions[i] = snapshot.version();
+                    }
+                    ServerManager.loadedServers();
+                }
+                return null;
+            });
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadId = thread;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int n = 0; n < OPERATIONS_PER_THREAD; n++) {
+                        int player = random.nextInt(PLAYERS);
+                        Connection session = sessions.get(player);
+
+                        // Every server is unique so every operation is a real change
+                        Server server = server("t" + threadId + "-" + n);
+                        ServerManager.addServer(session, server);
+                        changes[player].incrementAndGet();
+
+                        switch (random.nextInt(3)) {
+                            case 0:
+                                expected.get(player).add(server.address());
+                                break;
+                            case 1:
+                                ServerManager.removeServer(session, server);
+                                changes[player].incrementAndGet();
+                                break;
+                            default:
+                                Server updated = server("t" + threadId + "-" + n + "-updated");
+                                ServerManager.updateServer(session, server, updated);
+                                changes[player].incrementAndGet();
+                                expected.get(player).add(updated.address());
+                                break;
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            watcher.get(10, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        int totalChanges = 0;
+        for (int i = 0; i < PLAYERS; i++) {
+            ServerManager.Snapshot snapshot = ServerManager.snapshot(xuids.get(i));
+            assertNotNull(snapshot);
+
+            Set<String> addresses = new HashSet<>();
+            for (Server server : snapshot.servers()) {
+                addresses.add(server.address());
+            }
+            assertEquals(snapshot.servers().size(), addresses.size(), "Duplicate servers for " + xuids.get(i));
+            assertEquals(expected.get(i), addresses, "Servers for " + xuids.get(i));
+
+            // Each change bumps the version exactly once
+            assertEquals(changes[i].get(), snapshot.version(), "Version for " + xuids.get(i));
+            totalChanges += changes[i].get();
+        }
+        assertTrue(totalChanges >= THREADS * OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void changesBeforeLoadingAreIgnored() {
+        String xuid = "stress-loading";
+        xuids.add(xuid);
+        CompletableFuture<List<Server>> loading = new CompletableFuture<>();
+        ServerManager.loadServers(xuid, loading);
+
+        Connection session = session(xuid);
+        ServerManager.addServer(session, server("early"));
+        loading.complete(List.of(server("stored")));
+        ServerManager.addServer(session, server("late"));
+
+        ServerManager.Snapshot snapshot = ServerManager.snapshot(xuid);
+        assertEquals(List.of(server("stored"), server("late")), snapshot.servers());
+        assertEquals(1, snapshot.version());
+    }
+
+    @Test
+    void unloadingAnOldSessionKeepsTheNewSessionsServers() {
+        String xuid = "stress-rejoin";
+        Connection oldSession = session(xuid);
+        Connection newSession = session(xuid);
+        ServerManager.loadServers(xuid, oldSession, CompletableFuture.completedFuture(List.of(server("old"))));
+
+        // The player rejoins before the old session has disconnected
+        ServerManager.loadServers(xuid, newSession, CompletableFuture.completedFuture(List.of(server("new"))));
+        assertNull(ServerManager.unloadServers(xuid, oldSession));
+        assertEquals(List.of(server("new")), ServerManager.getServers(xuid));
+
+        assertEquals(List.of(server("new")), ServerManager.unloadServers(xuid, newSession).servers());
+        assertNull(ServerManager.getServers(xuid));
+    }
+
+    private static Server server(String address) {
+        return new Server(address, 25565, false, false, null, null, ServerCategory.CUSTOM);
+    }
+
+    private static Connection session(String xuid) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "xuid":
+                    return xuid;
+                case "bedrockUsername":
+                    return "Player " + xuid;
+                case "hashCode":
+                    return xuid.hashCode();
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return xuid;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}